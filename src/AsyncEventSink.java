@@ -0,0 +1,195 @@
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * StoreEventSink that formats and prints events on a background thread, so a checkout
+ * only pays for queueing the event. The caller copies what the event needs (a cart copy
+ * is a few small objects), and the writer thread formats a batch of events into one
+ * buffer and prints it with a single call.
+ *
+ * Events are printed in the order they were emitted. When the queue is full the caller
+ * waits for room, so no event is lost even if the console cannot keep up. Call flush to
+ * wait for everything emitted so far to be printed, and close to stop the writer thread.
+ */
+
+public class AsyncEventSink implements StoreEventSink, AutoCloseable {
+
+	private static final int DEFAULT_CAPACITY = 8192;
+	private static final int MAX_BATCH = 256;
+	private static final Consumer<StringBuilder> STOP = to -> {}; // queued by close, after the last event
+
+	private final PrintStream out;
+	private final BlockingQueue<Consumer<StringBuilder>> queue;
+	private final Thread writer;
+	private final AtomicLong emitted = new AtomicLong(); // events queued
+	private long printed = 0; // events printed, guarded by this
+	private final AtomicBoolean closed = new AtomicBoolean();
+
+	/**
+	 * Constructor, prints to System.out
+	 *
+	 */
+	public AsyncEventSink() {
+		this(System.out, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param PrintStream out - where to print events
+	 * @param int capacity - number of events that can wait to be printed
+	 */
+	public AsyncEventSink(PrintStream out, int capacity) {
+		this.out = out;
+		this.queue = new ArrayBlockingQueue<>(capacity);
+		this.writer = new Thread(this::writeEvents, "store-events");
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	@Override
+	public void cartUpdated(Cart cart) {
+		Cart copy = cart.copy();
+		emit(to -> ConsoleEventSink.Events.cart(to, copy));
+	}
+
+	@Override
+	public void shipmentProcessed(Product product, int quantity) {
+		Product copy = copy(product);
+		emit(to -> ConsoleEventSink.Events.shipment(to, copy, quantity));
+	}
+
+	@Override
+	public void priceUpdated(Product product) {
+		Product copy = copy(product);
+		emit(to -> ConsoleEventSink.Events.price(to, copy));
+	}
+
+	@Override
+	public void notice(String message) {
+		emit(to -> to.append(message).append('\n'));
+	}
+
+	@Override
+	public void error(String message, Throwable cause) {
+		emit(to -> {
+			ConsoleEventSink.Events.error(to, message, cause);
+			if (cause != null) {
+				// in the batch, so the trace goes to the same stream right after its message
+				StringWriter trace = new StringWriter();
+				cause.printStackTrace(new PrintWriter(trace));
+				to.append(trace);
+			}
+		});
+	}
+
+	/**
+	 * Waits until every event emitted before the call has been printed.
+	 *
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public void flush() throws InterruptedException {
+		synchronized (this) {
+			long target = emitted.get();
+			// an emit that was counted but then interrupted takes its count back
+			while (printed < Math.min(target, emitted.get()) && writer.isAlive()) {
+				wait(100);
+			}
+		}
+	}
+
+	/**
+	 * Prints the events still queued and stops the writer thread. Events emitted
+	 * afterwards are dropped. An interrupt does not cut this short, the interrupt
+	 * status is set again once the writer has stopped.
+	 */
+	@Override
+	public void close() {
+		if (!closed.compareAndSet(false, true)) {
+			return;
+		}
+		boolean interrupted = false;
+		while (true) {
+			try {
+				queue.put(STOP);
+				break;
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		while (writer.isAlive()) {
+			try {
+				writer.join();
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void emit(Consumer<StringBuilder> event) {
+		if (closed.get()) {
+			return;
+		}
+		// counted before it is queued, so a flush never returns with an event it counted still unprinted
+		emitted.incrementAndGet();
+		try {
+			queue.put(event);
+		} catch (InterruptedException e) {
+			emitted.decrementAndGet();
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	// Body of the writer thread: takes whatever is queued, up to MAX_BATCH events, and prints
+	// it at once. Stops at STOP; interrupts are ignored, only close stops the writer.
+	private void writeEvents() {
+		ArrayList<Consumer<StringBuilder>> batch = new ArrayList<>(MAX_BATCH);
+		StringBuilder text = new StringBuilder(1 << 16);
+		boolean stopped = false;
+		while (!stopped) {
+			try {
+				batch.add(queue.take());
+			} catch (InterruptedException e) {
+				continue;
+			}
+			queue.drainTo(batch, MAX_BATCH - 1);
+			int count = 0;
+			for (Consumer<StringBuilder> event : batch) {
+				if (event == STOP) {
+					stopped = true; // anything after it was emitted after close, and is dropped
+					break;
+				}
+				event.accept(text);
+				count++;
+			}
+			out.print(text);
+			out.flush();
+			synchronized (this) {
+				printed += count;
+				notifyAll();
+			}
+			batch.clear();
+			text.setLength(0);
+		}
+		synchronized (this) {
+			notifyAll();
+		}
+	}
+
+	private static Product copy(Product product) {
+		Product copy = new Product(product.getProductName(), product.getProductID(), product.getRestockAmount(), 0,
+				product.getCurrentStock());
+		copy.setPriceCents(product.getPriceCents());
+		return copy;
+	}
+}
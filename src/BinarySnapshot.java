@@ -0,0 +1,293 @@
+import java.io.*;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+
+/**
+ * BinarySnapshot reads and writes the whole store in a compact, versioned binary
+ * format. It is the alternative to the pipe delimited text format written by
+ * GroceryStore.save, and is much smaller and faster for large stores.
+ *
+ * Layout: a header (magic number, format version) followed by records. Every record
+ * is a type byte and a payload length, then the payload, so readers can skip record
+ * types they do not know. Fields are written as primitives and strings as modified
+ * UTF-8 with a length prefix. Dates are stored as epoch seconds and nanoseconds and
+ * read back in the system time zone. The last record is END.
+ *
+ * Version 2 stores prices and totals as a long number of cents, see Money. Version 1
+ * stored them as doubles and is still read.
+ */
+
+public class BinarySnapshot {
+
+	public static final int MAGIC = 0x47534E50; // "GSNP"
+	public static final int VERSION = 2;
+	static final int DOUBLE_PRICES_VERSION = 1; // prices and totals are doubles
+
+	private static final int END = 0;
+	private static final int MEMBER = 1;
+	private static final int PRODUCT = 2;
+	private static final int ORDER = 3;
+	private static final int TRANSACTION = 4;
+
+	// line item product encodings
+	private static final int CATALOG_PRODUCT = 0; // product is in the catalog, only the ID is stored
+	private static final int INLINE_PRODUCT = 1; // product is not in the catalog, so it is stored in full
+
+	private static final long NO_DATE = Long.MIN_VALUE;
+
+	private BinarySnapshot() {
+	}
+
+	/**
+	 * Checks whether a file starts with the binary snapshot magic number.
+	 *
+	 * @param File file - the file to check
+	 * @return boolean true if the file is a binary snapshot
+	 */
+	public static boolean isBinarySnapshot(File file) {
+		try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+			return in.readInt() == MAGIC;
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Writes every member, product, pending order and transaction to a stream.
+	 *
+	 * @param OutputStream stream - where to write the snapshot, should be buffered
+	 * @throws IOException if the stream cannot be written
+	 */
+	public static void write(OutputStream stream, MemberList members, ProductList products, ShipmentList shipments,
+			TransactionList transactions) throws IOException {
+		RecordWriter out = new RecordWriter(stream);
+		out.header();
+
+		for (Member member : members.getMemberList()) {
+			out.member(member);
+		}
+
+		for (Product product : products.getProductList()) {
+			out.product(product);
+		}
+
+		for (ProductOrder order : shipments.getOrders()) {
+			out.order(order.getProductID(), order.getQuantity());
+		}
+
+		// one at a time, so a ColumnarTransactionList does not build every transaction at once
+		for (int i = 0; i < transactions.size(); i++) {
+			out.transaction(transactions.get(i), products);
+		}
+
+		out.end();
+	}
+
+	/**
+	 * Reads a snapshot from a stream and adds its contents to the given lists.
+	 * Line items that refer to catalog products are linked to the catalog product.
+	 *
+	 * @param InputStream stream - where to read the snapshot from, should be buffered
+	 * @throws IOException if the stream cannot be read or is not a supported snapshot
+	 */
+	public static void read(InputStream stream, MemberList members, ProductList products, ShipmentList shipments,
+			TransactionList transactions) throws IOException {
+		DataInputStream in = new DataInputStream(stream);
+		if (in.readInt() != MAGIC) {
+			throw new IOException("Not a grocery store snapshot.");
+		}
+		int version = in.readUnsignedShort();
+		if (version != VERSION && version != DOUBLE_PRICES_VERSION) {
+			throw new IOException("Unsupported snapshot version " + version + ".");
+		}
+
+		while (true) {
+			int type = in.readUnsignedByte();
+			int length = in.readInt();
+			switch (type) {
+				case END:
+					return;
+				case MEMBER:
+					members.addMember(readMember(in));
+					break;
+				case PRODUCT:
+					products.addProduct(readProduct(in, version));
+					break;
+				case ORDER:
+					Product ordered = products.getProduct(in.readInt());
+					int quantity = in.readInt();
+					if (ordered != null) {
+						shipments.addProductOrder(ordered, quantity);
+					}
+					break;
+				case TRANSACTION:
+					transactions.addTransaction(readTransaction(in, products, version));
+					break;
+				default:
+					in.skipNBytes(length); // written by a newer version
+					break;
+			}
+		}
+	}
+
+	// Record payloads, also used by StoreJournal
+
+	static void writeMember(DataOutputStream out, Member member) throws IOException {
+		out.writeInt(member.getMemberID());
+		out.writeUTF(member.getMemberName());
+		out.writeUTF(member.getAddress());
+		out.writeUTF(member.getPhoneNumber());
+		writeDate(out, member.getEnrollmentDate());
+	}
+
+	static Member readMember(DataInputStream in) throws IOException {
+		int memberID = in.readInt();
+		String memberName = in.readUTF();
+		String address = in.readUTF();
+		Member member = new Member(memberName, address, in.readUTF());
+		member.setMemberID(memberID);
+		member.setEnrollmentDate(readDate(in));
+		return member;
+	}
+
+	static void writeProduct(DataOutputStream out, Product product) throws IOException {
+		out.writeInt(product.getProductID());
+		out.writeUTF(product.getProductName());
+		out.writeInt(product.getRestockAmount());
+		out.writeLong(product.getPriceCents());
+		out.writeInt(product.getCurrentStock());
+	}
+
+	static Product readProduct(DataInputStream in, int version) throws IOException {
+		int productID = in.readInt();
+		String name = in.readUTF();
+		int restock = in.readInt();
+		long priceCents = readCents(in, version);
+		Product product = new Product(name, productID, restock, 0, in.readInt());
+		product.setPriceCents(priceCents);
+		return product;
+	}
+
+	static void writeTransaction(DataOutputStream out, Transaction transaction, ProductList products) throws IOException {
+		out.writeInt(transaction.getMemberID());
+		writeDate(out, transaction.getDateOfSale());
+		out.writeInt(transaction.getTotalProducts());
+		out.writeLong(transaction.getTotalCents());
+		out.writeInt(transaction.lineItemList.size());
+		for (LineItem lineItem : transaction.lineItemList) {
+			Product product = lineItem.getProduct();
+			if (products.getProduct(product.getProductID()) == product) {
+				out.writeByte(CATALOG_PRODUCT);
+				out.writeInt(product.getProductID());
+			} else {
+				out.writeByte(INLINE_PRODUCT);
+				writeProduct(out, product);
+			}
+			out.writeInt(lineItem.getQuantity());
+			out.writeLong(lineItem.getPriceCents());
+		}
+	}
+
+	static Transaction readTransaction(DataInputStream in, ProductList products, int version) throws IOException {
+		int memberID = in.readInt();
+		ZonedDateTime dateOfSale = readDate(in);
+		int totalProducts = in.readInt();
+		long totalCents = readCents(in, version);
+		int lineCount = in.readInt();
+		ArrayList<LineItem> lineItems = new ArrayList<>(lineCount);
+		for (int i = 0; i < lineCount; i++) {
+			Product product;
+			if (in.readUnsignedByte() == INLINE_PRODUCT) {
+				product = readProduct(in, version);
+			} else {
+				int productID = in.readInt();
+				product = products.getProduct(productID);
+				if (product == null) {
+					throw new IOException("Transaction refers to unknown product " + productID + ".");
+				}
+			}
+			int quantity = in.readInt();
+			lineItems.add(LineItem.ofCents(product, quantity, readCents(in, version)));
+		}
+		return Transaction.ofCents(memberID, lineItems, totalProducts, totalCents, dateOfSale);
+	}
+
+	private static long readCents(DataInputStream in, int version) throws IOException {
+		return version == DOUBLE_PRICES_VERSION ? Money.toCents(in.readDouble()) : in.readLong();
+	}
+
+	static void writeDate(DataOutputStream out, ZonedDateTime date) throws IOException {
+		if (date == null) {
+			out.writeLong(NO_DATE);
+			out.writeInt(0);
+		} else {
+			out.writeLong(date.toEpochSecond());
+			out.writeInt(date.getNano());
+		}
+	}
+
+	static ZonedDateTime readDate(DataInputStream in) throws IOException {
+		long seconds = in.readLong();
+		int nanos = in.readInt();
+		if (seconds == NO_DATE) {
+			return null;
+		}
+		return ZonedDateTime.ofInstant(Instant.ofEpochSecond(seconds, nanos), ZoneId.systemDefault());
+	}
+
+	/**
+	 * Writes a snapshot one record at a time. A snapshot is a header, any number of
+	 * records and an end record. Parts of a snapshot can also be written to separate
+	 * buffers without a header or end, on several threads, and copied into the snapshot
+	 * in order afterwards, see DataGenerator.
+	 */
+	static class RecordWriter {
+		private final DataOutputStream out;
+		private final ByteArrayOutputStream payload = new ByteArrayOutputStream(256);
+		private final DataOutputStream record = new DataOutputStream(payload);
+
+		RecordWriter(OutputStream stream) {
+			out = new DataOutputStream(stream);
+		}
+
+		void header() throws IOException {
+			out.writeInt(MAGIC);
+			out.writeShort(VERSION);
+		}
+
+		void member(Member member) throws IOException {
+			writeMember(record, member);
+			writeRecord(MEMBER);
+		}
+
+		void product(Product product) throws IOException {
+			writeProduct(record, product);
+			writeRecord(PRODUCT);
+		}
+
+		void order(int productID, int quantity) throws IOException {
+			record.writeInt(productID);
+			record.writeInt(quantity);
+			writeRecord(ORDER);
+		}
+
+		void transaction(Transaction transaction, ProductList products) throws IOException {
+			writeTransaction(record, transaction, products);
+			writeRecord(TRANSACTION);
+		}
+
+		void end() throws IOException {
+			writeRecord(END);
+			out.flush();
+		}
+
+		private void writeRecord(int type) throws IOException {
+			out.writeByte(type);
+			out.writeInt(payload.size());
+			payload.writeTo(out);
+			payload.reset();
+		}
+	}
+}
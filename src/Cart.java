@@ -1,4 +1,6 @@
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 // Cart class
 
@@ -6,6 +8,8 @@ public class Cart {
     private int memberID;
     private ArrayList<LineItem> inCart;
     private int totalProducts;
+    private long totalCents; // running total of inCart, see Money
+    private IntHashMap<LineItem> itemsByProduct; // productID -> the first LineItem for that product
 
     /**
      * Constructor
@@ -16,6 +20,8 @@ public class Cart {
         this.memberID = memberID;
         inCart = new ArrayList<LineItem>();
         totalProducts = 0;
+        totalCents = 0;
+        itemsByProduct = new IntHashMap<>();
     }
 
     /**
@@ -30,10 +36,21 @@ public class Cart {
     /**
      * Getter InCart
      * 
-     * @return LineItems stored in cart
+     * @return read only view of the LineItems stored in cart, quantities are changed
+     *         through addProduct so the running total stays correct
      */
-    public ArrayList<LineItem> getInCart() {
-        return inCart;
+    public List<LineItem> getInCart() {
+        return Collections.unmodifiableList(inCart);
+    }
+
+    /**
+     * Getter for the LineItem of a product
+     * 
+     * @param productID - product to look for
+     * @return the first LineItem for the product, null if it is not in the cart
+     */
+    public LineItem getLineItem(int productID) {
+        return itemsByProduct.get(productID);
     }
 
     /**
@@ -45,22 +62,49 @@ public class Cart {
     public boolean addLineItemToCart(LineItem item) {
         if (inCart.add(item)) {
             totalProducts++;
+            totalCents += item.getPriceCents();
+            itemsByProduct.putIfAbsent(item.getProduct().getProductID(), item);
             return true;
         }
         return false;
     }
 
+    /**
+     * Add a quantity of a product during checkout. If the product is already in the
+     * cart its quantity is increased, otherwise a new LineItem is added.
+     * 
+     * @param product  - product to add
+     * @param quantity - how many to add
+     * @return true if success or false if failure
+     */
+    public boolean addProduct(Product product, int quantity) {
+        LineItem item = itemsByProduct.get(product.getProductID());
+        if (item == null) {
+            return addLineItemToCart(new LineItem(product, quantity));
+        }
+        totalCents -= item.getPriceCents();
+        item.setQuantity(item.getQuantity() + quantity);
+        totalCents += item.getPriceCents();
+        return true;
+    }
+
     /**
      * Calculate sales from current cart
      * 
      * @return Cart total price
      */
     public double calculateSales() {
-        double sales = 0;
-        for (LineItem l : inCart) {
-            sales += l.getPrice();
-        }
-        return sales;
+        return Money.toDollars(totalCents);
+    }
+
+    /**
+     * Calculate sales from current cart in cents, exact for any number of items.
+     * The total is kept up to date as items are added, so this does not visit them.
+     * 
+     * @return Cart total price in cents
+     */
+    public long calculateSalesCents() {
+        return totalCents;
     }
 
     /**
@@ -70,19 +114,42 @@ public class Cart {
      */
     public Transaction createTransaction() {
 
-        return new Transaction(memberID, inCart, totalProducts, this.calculateSales());
+        return Transaction.ofCents(memberID, inCart, totalProducts, this.calculateSalesCents(), java.time.ZonedDateTime.now());
     }
     
+    /**
+     * Copy of the cart with copies of its LineItems, which does not change when the cart does
+     * 
+     * @return the copy
+     */
+    public Cart copy() {
+        Cart copy = new Cart(memberID);
+        for (LineItem l : inCart) {
+            copy.addLineItemToCart(LineItem.ofCents(l.getProduct(), l.getQuantity(), l.getPriceCents()));
+        }
+        return copy;
+    }
+
     /*
      * Print Current Cart
      */
     public void print() {
-        System.out.println("Cart                                        MemberID: " + memberID);
-        System.out.println(".........................................................");
+        System.out.print(format(new StringBuilder(256)));
+    }
+
+    /**
+     * Appends the cart as print shows it.
+     * 
+     * @param to where to append the cart
+     * @return to
+     */
+    public StringBuilder format(StringBuilder to) {
+        to.append("Cart                                        MemberID: ").append(memberID).append('\n');
+        to.append(".........................................................\n");
         for (LineItem l : inCart) {
-            l.print();
+            l.format(to);
         }
-        System.out.println("\nTotal: $" + String.format("%.2f", this.calculateSales()));
+        return Money.append(to.append("\nTotal: $"), this.calculateSalesCents()).append('\n');
     }
 
 }
@@ -1,4 +1,5 @@
 import static org.junit.Assert.*;
+import java.util.ArrayList;
 import org.junit.Before;
 import org.junit.Test;
 public class CheckoutTests {
@@ -45,6 +46,20 @@ public class CheckoutTests {
         assertTrue("Adding a item to cart should return true.", result);
     }
 
+    @Test
+    public void testRepeatedProductMergesIntoOneLine() {
+        groceryStore.openCart("merge", jackson.getMemberID());
+        Product product3 = new Product("Soda", 98724, 5, 1.25, 20);
+        groceryStore.addProductToCatalog(product3);
+        groceryStore.addProductToCart("merge", product3.getProductID(), 2);
+        groceryStore.addProductToCart("merge", product3.getProductID(), 3);
+        Cart mergeCart = groceryStore.getCart("merge");
+        assertEquals("Both adds should share one LineItem.", 1, mergeCart.getInCart().size());
+        assertEquals(5, mergeCart.getLineItem(product3.getProductID()).getQuantity());
+        assertEquals("The running total should follow the quantity change.", 625, mergeCart.calculateSalesCents());
+        groceryStore.closeCart("merge");
+    }
+
     @Test
     public void testCreateTransaction() {
         groceryStore.createCart(adan.getMemberID());
@@ -66,4 +81,32 @@ public class CheckoutTests {
         System.out.println(change);
         assertEquals("Insuffcient payment is received.", 14.0, change);
     }
+
+    @Test
+    public void testConcurrentCheckoutSessions() throws InterruptedException {
+        Product product4 = new Product("Bagels", 98800, 1, 2.0, 10000);
+        groceryStore.addProductToCatalog(product4);
+        int registers = 8;
+        int checkoutsPerRegister = 50;
+
+        ArrayList<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < registers; i++) {
+            String session = "register-" + i;
+            Thread register = new Thread(() -> {
+                for (int j = 0; j < checkoutsPerRegister; j++) {
+                    groceryStore.openCart(session, preston.getMemberID());
+                    groceryStore.addProductToCart(session, product4.getProductID(), 1);
+                    groceryStore.finalizeCart(session, 2.0);
+                }
+            });
+            threads.add(register);
+            register.start();
+        }
+        for (Thread register : threads) {
+            register.join();
+        }
+        assertEquals("Every checkout should take one item from stock.", 10000 - registers * checkoutsPerRegister,
+                product4.getCurrentStock());
+        assertNull("Finalized sessions should be closed.", groceryStore.getCart("register-0"));
+    }
 }
@@ -0,0 +1,330 @@
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Objects;
+
+// TransactionList that stores transactions column by column in primitive arrays instead
+// of as Transaction and LineItem objects. A line item costs 16 bytes (product, quantity and
+// price in cents) and a transaction 32 bytes plus its line items. Transaction and LineItem
+// objects are built only when a transaction is read. Line items refer to their product by
+// its position in a table of the products sold, not by product ID, so changing a product's
+// ID or giving its old ID to a new product does not change past sales. Products loaded with
+// a sale, which are not in the catalog, share an entry when their contents are the same. Safe to share
+// between registers: every method locks the list.
+//
+// Difference from TransactionList: dates of sale are read back in the system time zone.
+
+public class ColumnarTransactionList extends TransactionList {
+
+	private static final int PRODUCT_ENTRY_BYTES = 4 + 16 + 16; // table slot, map slots, boxed position
+
+	// every product sold, once each, and its position in the table
+	private final ArrayList<Product> productTable = new ArrayList<>();
+	private final IdentityHashMap<Product, Integer> productPositions = new IdentityHashMap<>();
+	// productID -> positions of the products in the table that were not in a catalog when sold
+	private final IntHashMap<ArrayList<Integer>> productsOutsideCatalog = new IntHashMap<>();
+
+	// one entry per transaction, in the order they were added
+	private int transactionCount = 0;
+	private int[] memberIDs = new int[16];
+	private long[] saleTimes = new long[16]; // nanoseconds since the epoch
+	private int[] totalProducts = new int[16];
+	private long[] totalCents = new long[16];
+	private int[] firstLine = new int[17]; // line items of transaction t are firstLine[t] to firstLine[t + 1]
+	private int[] nextForMember = new int[16]; // next transaction of the same member, -1 for the last one
+
+	// one entry per line item
+	private int lineCount = 0;
+	private int[] productRefs = new int[16]; // position in productTable
+	private int[] quantities = new int[16];
+	private long[] linePriceCents = new long[16];
+
+	// memberID -> first and last transaction of the member
+	private final IntHashMap<int[]> memberChains = new IntHashMap<>();
+	// Transactions sorted by sale time, the first transactionCount entries are used. Null
+	// while every transaction was added in time order, then kept up to date as more are added.
+	private int[] dateOrder = null;
+
+	@Override
+	public synchronized void addTransaction(Transaction tx) {
+		indexByDate(store(tx));
+	}
+
+	/**
+	 * Adds many transactions at once, such as the ones read from a saved store. Those not
+	 * in date order are sorted together and merged into the time index once, instead of
+	 * each being inserted in turn.
+	 */
+	@Override
+	public synchronized void addTransactions(List<Transaction> added) {
+		int from = transactionCount;
+		for (Transaction tx : added) {
+			store(tx);
+		}
+		if (dateOrder == null) {
+			int t = Math.max(from, 1);
+			while (t < transactionCount && saleTimes[t - 1] <= saleTimes[t]) {
+				t++;
+			}
+			if (t == transactionCount) {
+				return; // still in time order
+			}
+			dateOrder = new int[memberIDs.length];
+			for (int i = 0; i < from; i++) {
+				dateOrder[i] = i;
+			}
+		} else if (dateOrder.length < transactionCount) {
+			dateOrder = Arrays.copyOf(dateOrder, memberIDs.length);
+		}
+		for (int t = from; t < transactionCount; t++) {
+			dateOrder[t] = t;
+		}
+		int[] scratch = new int[transactionCount];
+		mergeSort(dateOrder, scratch, from, transactionCount);
+		merge(dateOrder, scratch, 0, from, transactionCount);
+	}
+
+	// Stores a transaction in the columns, returns its index.
+	private int store(Transaction tx) {
+		int t = transactionCount;
+		if (t == memberIDs.length) {
+			int capacity = t * 2;
+			memberIDs = Arrays.copyOf(memberIDs, capacity);
+			saleTimes = Arrays.copyOf(saleTimes, capacity);
+			totalProducts = Arrays.copyOf(totalProducts, capacity);
+			totalCents = Arrays.copyOf(totalCents, capacity);
+			firstLine = Arrays.copyOf(firstLine, capacity + 1);
+			nextForMember = Arrays.copyOf(nextForMember, capacity);
+		}
+		memberIDs[t] = tx.getMemberID();
+		saleTimes[t] = saleTimeKey(tx.getDateOfSale());
+		totalProducts[t] = tx.getTotalProducts();
+		totalCents[t] = tx.getTotalCents();
+		nextForMember[t] = -1;
+
+		int needed = lineCount + tx.lineItemList.size();
+		if (needed > productRefs.length) {
+			int capacity = Math.max(needed, productRefs.length * 2);
+			productRefs = Arrays.copyOf(productRefs, capacity);
+			quantities = Arrays.copyOf(quantities, capacity);
+			linePriceCents = Arrays.copyOf(linePriceCents, capacity);
+		}
+		for (LineItem lineItem : tx.lineItemList) {
+			productRefs[lineCount] = productPosition(lineItem.getProduct());
+			quantities[lineCount] = lineItem.getQuantity();
+			linePriceCents[lineCount] = lineItem.getPriceCents();
+			lineCount++;
+		}
+		firstLine[t + 1] = lineCount;
+
+		int[] chain = memberChains.get(tx.getMemberID());
+		if (chain == null) {
+			memberChains.put(tx.getMemberID(), new int[] { t, t });
+		} else {
+			nextForMember[chain[1]] = t;
+			chain[1] = t;
+		}
+		transactionCount++;
+		return t;
+	}
+
+	// Places transaction t in the time index. Sales normally arrive in time order and need no
+	// index. Once one arrives out of order, such as from a register that stamped its sale
+	// just before another one, the index is built, and each later sale is inserted after
+	// any with the same sale time, which is at or near the end.
+	private void indexByDate(int t) {
+		if (dateOrder == null) {
+			if (t == 0 || saleTimes[t - 1] <= saleTimes[t]) {
+				return;
+			}
+			dateOrder = new int[memberIDs.length];
+			for (int i = 0; i < t; i++) {
+				dateOrder[i] = i;
+			}
+		} else if (dateOrder.length <= t) {
+			dateOrder = Arrays.copyOf(dateOrder, memberIDs.length);
+		}
+		int position = firstAfter(saleTimes[t], dateOrder, t);
+		System.arraycopy(dateOrder, position, dateOrder, position + 1, t - position);
+		dateOrder[position] = t;
+	}
+
+	@Override
+	public synchronized List<Transaction> getTransactionsByMember(int memberID) {
+		int[] chain = memberChains.get(memberID);
+		if (chain == null) {
+			return Collections.emptyList();
+		}
+		ArrayList<Transaction> memberTransactions = new ArrayList<Transaction>();
+		for (int t = chain[0]; t != -1; t = nextForMember[t]) {
+			memberTransactions.add(materialize(t));
+		}
+		return Collections.unmodifiableList(memberTransactions);
+	}
+
+	@Override
+	public synchronized ArrayList<Transaction> getTransactionsByDate(ZonedDateTime startDate, ZonedDateTime endDate) {
+		ArrayList<Transaction> dateTransactions = new ArrayList<Transaction>();
+		long end = saleTimeKey(endDate);
+		int[] order = dateOrder;
+		for (int i = firstAfter(saleTimeKey(startDate), order, transactionCount); i < transactionCount; i++) {
+			int t = order == null ? i : order[i];
+			if (saleTimes[t] >= end) {
+				break;
+			}
+			dateTransactions.add(materialize(t));
+		}
+		return dateTransactions;
+	}
+
+	@Override
+	public synchronized Transaction get(int index) {
+		if (index < 0 || index >= transactionCount) {
+			System.out.println("Transaction out of bounds of the TransactionList array");
+			return null;
+		}
+		return materialize(index);
+	}
+
+	/**
+	 * Builds every transaction. For large lists prefer size() and get(int), which build one at a time.
+	 */
+	@Override
+	public synchronized ArrayList<Transaction> getAllTransactions() {
+		ArrayList<Transaction> all = new ArrayList<Transaction>(transactionCount);
+		for (int t = 0; t < transactionCount; t++) {
+			all.add(materialize(t));
+		}
+		return all;
+	}
+
+	@Override
+	public synchronized int size() {
+		return transactionCount;
+	}
+
+	@Override
+	public synchronized void print() {
+		for (int t = 0; t < transactionCount; t++) {
+			materialize(t).print();
+		}
+	}
+
+	/**
+	 * @return double bytes of column storage per line item, counting the transaction columns,
+	 *         the product table and unused capacity, 0 if no line items are stored
+	 */
+	public synchronized double bytesPerLineItem() {
+		if (lineCount == 0) {
+			return 0;
+		}
+		long transactionBytes = (long) memberIDs.length * (4 + 8 + 4 + 8 + 4 + 4)
+				+ (dateOrder == null ? 0 : dateOrder.length * 4L);
+		long lineBytes = (long) productRefs.length * (4 + 4 + 8);
+		long productBytes = (long) productTable.size() * PRODUCT_ENTRY_BYTES;
+		return (double) (transactionBytes + lineBytes + productBytes) / lineCount;
+	}
+
+	// Position of a product in the table, adding it if it is new. A sale loaded from a save
+	// has a new Product object for every line item, so products outside a catalog with the
+	// same contents share one entry, and the table grows with the products sold rather than
+	// with the line items.
+	private int productPosition(Product product) {
+		Integer position = productPositions.get(product);
+		if (position != null) {
+			return position;
+		}
+		ArrayList<Integer> sameID = null;
+		boolean outsideCatalog = product.getCatalog() == null;
+		if (outsideCatalog) {
+			sameID = productsOutsideCatalog.get(product.getProductID());
+			if (sameID != null) {
+				for (int other : sameID) {
+					if (sameContents(productTable.get(other), product)) {
+						return other;
+					}
+				}
+			}
+		}
+		position = productTable.size();
+		productTable.add(product);
+		productPositions.put(product, position);
+		if (outsideCatalog) {
+			if (sameID == null) {
+				sameID = new ArrayList<>(1);
+				productsOutsideCatalog.put(product.getProductID(), sameID);
+			}
+			sameID.add(position);
+		}
+		return position;
+	}
+
+	private static boolean sameContents(Product a, Product b) {
+		return a.getProductID() == b.getProductID() && a.getPriceCents() == b.getPriceCents()
+				&& a.getRestockAmount() == b.getRestockAmount() && a.getCurrentStock() == b.getCurrentStock()
+				&& Objects.equals(a.getProductName(), b.getProductName());
+	}
+
+	// Builds the Transaction stored at index t.
+	private Transaction materialize(int t) {
+		int first = firstLine[t];
+		int last = firstLine[t + 1];
+		ArrayList<LineItem> lineItems = new ArrayList<LineItem>(last - first);
+		for (int i = first; i < last; i++) {
+			lineItems.add(LineItem.ofCents(productTable.get(productRefs[i]), quantities[i], linePriceCents[i]));
+		}
+		long time = saleTimes[t];
+		ZonedDateTime dateOfSale = ZonedDateTime.ofInstant(
+				Instant.ofEpochSecond(Math.floorDiv(time, 1_000_000_000L), Math.floorMod(time, 1_000_000_000L)),
+				ZoneId.systemDefault());
+		return Transaction.ofCents(memberIDs[t], lineItems, totalProducts[t], totalCents[t], dateOfSale);
+	}
+
+	// Sorts transaction indexes by sale time, stable so equal times keep the order they were added in.
+	private void mergeSort(int[] order, int[] scratch, int from, int to) {
+		if (to - from < 2) {
+			return;
+		}
+		int middle = (from + to) >>> 1;
+		mergeSort(order, scratch, from, middle);
+		mergeSort(order, scratch, middle, to);
+		merge(order, scratch, from, middle, to);
+	}
+
+	// Merges the sorted runs from..middle and middle..to, the first run first on equal times.
+	private void merge(int[] order, int[] scratch, int from, int middle, int to) {
+		if (from == middle || middle == to || saleTimes[order[middle - 1]] <= saleTimes[order[middle]]) {
+			return; // already in order
+		}
+		System.arraycopy(order, from, scratch, from, to - from);
+		int left = from;
+		int right = middle;
+		for (int i = from; i < to; i++) {
+			if (right >= to || (left < middle && saleTimes[scratch[left]] <= saleTimes[scratch[right]])) {
+				order[i] = scratch[left++];
+			} else {
+				order[i] = scratch[right++];
+			}
+		}
+	}
+
+	// position in time order, among the first count transactions, of the first one sold after the given time
+	private int firstAfter(long time, int[] order, int count) {
+		int low = 0;
+		int high = count;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (saleTimes[order == null ? mid : order[mid]] <= time) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+}
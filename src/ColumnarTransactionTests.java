@@ -0,0 +1,75 @@
+import static org.junit.Assert.*;
+import java.util.ArrayList;
+import org.junit.Test;
+
+public class ColumnarTransactionTests extends TransactionTests {
+    /**
+     * Runs the TransactionTests against ColumnarTransactionList, and checks that
+     * line items are rebuilt from the columns.
+     */
+    private ProductList catalog = new ProductList();
+
+    @Override
+    protected TransactionList newTransactionList() {
+        return new ColumnarTransactionList();
+    }
+
+    @Test
+    public void testLineItemsAreRebuilt() {
+        Product milk = new Product("Milk", 4001, 5, 3.49, 40);
+        catalog.addProduct(milk);
+        Product loaded = new Product("Old Bread", 4002, 5, 2.00, 10); // not in the catalog
+        ArrayList<LineItem> lineItems = new ArrayList<>();
+        lineItems.add(new LineItem(milk, 2));
+        lineItems.add(LineItem.ofCents(loaded, 1, 150L));
+        transactions.addTransaction(Transaction.ofCents(100, lineItems, 3, 848L, monday));
+
+        Transaction rebuilt = transactions.get(0);
+        assertEquals(848L, rebuilt.getTotalCents());
+        assertEquals(monday.toInstant(), rebuilt.getDateOfSale().toInstant());
+        assertSame("The product sold is kept.", milk, rebuilt.lineItemList.get(0).getProduct());
+        assertEquals(698L, rebuilt.lineItemList.get(0).getPriceCents());
+        assertEquals("Old Bread", rebuilt.lineItemList.get(1).getProduct().getProductName());
+        assertEquals("The price paid is kept.", 150L, rebuilt.lineItemList.get(1).getPriceCents());
+        assertTrue(((ColumnarTransactionList) transactions).bytesPerLineItem() > 0);
+    }
+
+    @Test
+    public void testSalesKeepTheirProductWhenItsIDChanges() {
+        Product tea = new Product("Green Tea", 4003, 5, 2.50, 20);
+        catalog.addProduct(tea);
+        ArrayList<LineItem> lineItems = new ArrayList<>();
+        lineItems.add(new LineItem(tea, 2));
+        transactions.addTransaction(Transaction.ofCents(100, lineItems, 2, 500L, monday));
+
+        tea.setProductID(4004);
+        assertSame(tea, transactions.get(0).lineItemList.get(0).getProduct());
+        transactions.print();
+
+        Product coffee = new Product("Coffee", 4003, 5, 8.00, 20); // takes the old ID
+        catalog.addProduct(coffee);
+        LineItem sold = transactions.get(0).lineItemList.get(0);
+        assertSame("A new product with the old ID should not take over past sales.", tea, sold.getProduct());
+        assertEquals(4004, sold.getProduct().getProductID());
+        assertEquals(500L, sold.getPriceCents());
+    }
+
+    @Test
+    public void testLoadedCopiesOfAProductShareAnEntry() {
+        for (int i = 0; i < 3; i++) {
+            // a text or inline load makes a new Product for every line item
+            Product copy = new Product("Loaded Jam", 4010, 5, 3.00, 12);
+            ArrayList<LineItem> lineItems = new ArrayList<>();
+            lineItems.add(LineItem.ofCents(copy, 1, 300L));
+            transactions.addTransaction(Transaction.ofCents(100, lineItems, 1, 300L, monday.plusHours(i)));
+        }
+        Product changed = new Product("Loaded Jam", 4010, 5, 3.50, 12); // sold at another price
+        ArrayList<LineItem> lineItems = new ArrayList<>();
+        lineItems.add(LineItem.ofCents(changed, 1, 350L));
+        transactions.addTransaction(Transaction.ofCents(100, lineItems, 1, 350L, monday.plusHours(3)));
+
+        Product first = transactions.get(0).lineItemList.get(0).getProduct();
+        assertSame(first, transactions.get(2).lineItemList.get(0).getProduct());
+        assertSame(changed, transactions.get(3).lineItemList.get(0).getProduct());
+    }
+}
@@ -0,0 +1,61 @@
+// StoreEventSink that prints every event to the console on the caller's thread, the way
+// the store has always printed them. Each event is built in one StringBuilder and
+// printed with one call, so events from different registers do not interleave.
+
+public class ConsoleEventSink implements StoreEventSink {
+
+	@Override
+	public void cartUpdated(Cart cart) {
+		System.out.print(Events.cart(new StringBuilder(256), cart));
+	}
+
+	@Override
+	public void shipmentProcessed(Product product, int quantity) {
+		System.out.print(Events.shipment(new StringBuilder(256), product, quantity));
+	}
+
+	@Override
+	public void priceUpdated(Product product) {
+		System.out.print(Events.price(new StringBuilder(256), product));
+	}
+
+	@Override
+	public void notice(String message) {
+		System.out.println(message);
+	}
+
+	@Override
+	public void error(String message, Throwable cause) {
+		System.out.print(Events.error(new StringBuilder(), message, cause));
+		if (cause != null) {
+			cause.printStackTrace();
+		}
+	}
+
+	// How each event reads, shared with AsyncEventSink. Stack traces are left to each sink.
+	static class Events {
+
+		static StringBuilder cart(StringBuilder to, Cart cart) {
+			return cart.format(to);
+		}
+
+		static StringBuilder shipment(StringBuilder to, Product product, int quantity) {
+			to.append(product.getProductName()).append(" is on order.\n");
+			to.append("------- Quantity on order: ").append(quantity).append(" -------\n");
+			to.append("------- Stock updated. -------\n");
+			return product.format(to);
+		}
+
+		static StringBuilder price(StringBuilder to, Product product) {
+			return product.format(to.append("Price has been updated.\n"));
+		}
+
+		static StringBuilder error(StringBuilder to, String message, Throwable cause) {
+			to.append(message).append('\n');
+			if (cause != null) {
+				to.append(cause.getMessage()).append('\n');
+			}
+			return to;
+		}
+	}
+}
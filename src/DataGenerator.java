@@ -0,0 +1,344 @@
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * DataGenerator builds a synthetic store of any size for load tests and benchmarks.
+ * The same seed and counts always give the same members, products and transactions,
+ * whatever the number of threads.
+ *
+ * Product popularity follows a Zipf distribution, so a few products are in most
+ * baskets and most products sell rarely, as in a real store. Product IDs are
+ * sequential from FIRST_PRODUCT_ID and never collide. Members get IDs from the member
+ * ID counter, like enrolled members. Transactions are spread over the year starting
+ * at START, between 8am and 10pm.
+ *
+ * Transactions are generated in fixed size chunks, each with its own random stream,
+ * on a fork-join pool. They go either straight into the store or into a BinarySnapshot
+ * file, which GroceryStore.open can load.
+ *
+ * Run with: java DataGenerator seed members products transactions itemsPerBasket file [threads]
+ */
+
+public class DataGenerator {
+
+	public static final int FIRST_PRODUCT_ID = 100_000;
+	public static final ZonedDateTime START = ZonedDateTime.parse("2023-01-01T00:00:00-06:00[America/Chicago]");
+	private static final int DAYS = 365;
+	private static final double ZIPF_EXPONENT = 1.0;
+	private static final int CHUNK = 10_000; // transactions per chunk
+
+	private static final String[] FIRST_NAMES = { "Liam", "Olivia", "Noah", "Ava", "Sophia", "Mia", "Jackson", "Aiden",
+			"Lucas", "Emma", "Amelia", "Elijah", "Harper", "Mateo", "Evelyn", "Omar" };
+	private static final String[] LAST_NAMES = { "Smith", "Johnson", "Brown", "Davis", "Jones", "Miller", "Wilson",
+			"Moore", "Taylor", "Anderson", "Nguyen", "Garcia", "Lee", "Hassan", "Olson", "Yang" };
+	private static final String[] STREETS = { "Elm Street", "Oak Avenue", "Maple Lane", "Birch Road", "Pine Street",
+			"Cedar Avenue", "Aspen Lane", "Spruce Road" };
+	private static final String[] CITIES = { "Springfield, MN 55414", "Willowville, MN 55101", "Cedarville, MN 55369",
+			"Pinecrest, MN 55811" };
+	private static final String[] FLAVORS = { "Zesty", "Savory", "Spicy", "Honey", "Garlic", "Sea Salt", "Maple",
+			"Berry", "Lemon", "Coconut", "Cheddar", "Smoky", "Mango", "Cinnamon", "Ranch", "Mint" };
+	private static final String[] FOODS = { "Chips", "Popcorn", "Cookies", "Yogurt", "Muffins", "Pretzels",
+			"Granola", "Crackers", "Soda", "Smoothie", "Bars", "Bagels", "Salsa", "Tea", "Coffee", "Cereal" };
+
+	private final long seed;
+	private final int memberCount;
+	private final int productCount;
+	private final int transactionCount;
+	private final int itemsPerBasket;
+
+	/**
+	 * Constructor
+	 *
+	 * @param long seed - seed of every random choice
+	 * @param int memberCount - number of members
+	 * @param int productCount - number of products, at least 1 if there are transactions
+	 * @param int transactionCount - number of transactions
+	 * @param int itemsPerBasket - average number of line items in a transaction, at least 1
+	 */
+	public DataGenerator(long seed, int memberCount, int productCount, int transactionCount, int itemsPerBasket) {
+		if (memberCount < 1 && transactionCount > 0) {
+			throw new IllegalArgumentException("Transactions need at least one member.");
+		}
+		if (productCount < 1 && transactionCount > 0) {
+			throw new IllegalArgumentException("Transactions need at least one product.");
+		}
+		if (itemsPerBasket < 1) {
+			throw new IllegalArgumentException("Baskets need at least one item.");
+		}
+		this.seed = seed;
+		this.memberCount = memberCount;
+		this.productCount = productCount;
+		this.transactionCount = transactionCount;
+		this.itemsPerBasket = itemsPerBasket;
+	}
+
+	/**
+	 * Adds the generated members, products and transactions to the store.
+	 *
+	 * @param GroceryStore store - the store to fill
+	 * @param int threads - number of threads generating transactions
+	 */
+	public void generate(GroceryStore store, int threads) {
+		SplittableRandom random = new SplittableRandom(seed);
+		int[] memberIDs = new int[memberCount];
+		SplittableRandom memberRandom = random.split();
+		int firstMemberID = MemberList.getMemberIDCounter();
+		for (int i = 0; i < memberCount; i++) {
+			Member member = member(memberRandom, i, firstMemberID + i);
+			store.addMember(member);
+			memberIDs[i] = member.getMemberID();
+		}
+		Product[] products = new Product[productCount];
+		SplittableRandom productRandom = random.split();
+		for (int i = 0; i < productCount; i++) {
+			products[i] = product(productRandom, i);
+			if (store.getProduct(products[i].getProductID()) != null) {
+				throw new IllegalStateException("Product " + products[i].getProductID() + " is already in the store.");
+			}
+			store.addProductToCatalog(products[i]);
+		}
+
+		ZipfSampler popularity = new ZipfSampler(productCount, ZIPF_EXPONENT, random.split());
+		ArrayList<Callable<List<Transaction>>> tasks = new ArrayList<>();
+		for (long chunkSeed : chunkSeeds(random)) {
+			int chunk = tasks.size();
+			tasks.add(() -> {
+				SplittableRandom chunkRandom = new SplittableRandom(chunkSeed);
+				int count = Math.min(CHUNK, transactionCount - chunk * CHUNK);
+				ArrayList<Transaction> generated = new ArrayList<>(count);
+				for (int i = 0; i < count; i++) {
+					generated.add(transaction(chunkRandom, products, memberIDs, popularity));
+				}
+				return generated;
+			});
+		}
+		ArrayList<Transaction> generated = new ArrayList<>(transactionCount);
+		for (List<Transaction> chunk : run(tasks, threads)) {
+			generated.addAll(chunk);
+		}
+		store.addTransactions(generated);
+	}
+
+	/**
+	 * Writes the generated store to a BinarySnapshot file. Transactions are generated and
+	 * written a few chunks at a time, so the file can be much larger than memory allows
+	 * for a store. Member IDs start at 100, the first ID the member ID counter gives out.
+	 *
+	 * @param Path file - the file to write, replaced if it exists
+	 * @param int threads - number of threads generating transactions
+	 * @throws IOException if the file cannot be written
+	 */
+	public void writeSnapshot(Path file, int threads) throws IOException {
+		SplittableRandom random = new SplittableRandom(seed);
+		Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+		try (OutputStream stream = new BufferedOutputStream(Files.newOutputStream(temp), 1 << 20)) {
+			BinarySnapshot.RecordWriter out = new BinarySnapshot.RecordWriter(stream);
+			out.header();
+			int[] memberIDs = new int[memberCount];
+			SplittableRandom memberRandom = random.split();
+			for (int i = 0; i < memberCount; i++) {
+				Member member = member(memberRandom, i, 100 + i);
+				out.member(member);
+				memberIDs[i] = member.getMemberID();
+			}
+			Product[] products = new Product[productCount];
+			ProductList catalog = new ProductList(); // tells the writer line items refer to catalog products
+			SplittableRandom productRandom = random.split();
+			for (int i = 0; i < productCount; i++) {
+				products[i] = product(productRandom, i);
+				out.product(products[i]);
+				catalog.addProduct(products[i]);
+			}
+
+			ZipfSampler popularity = new ZipfSampler(productCount, ZIPF_EXPONENT, random.split());
+			long[] seeds = chunkSeeds(random);
+			int inFlight = Math.max(threads, 1) * 4; // chunks generated before they are written
+			for (int first = 0; first < seeds.length; first += inFlight) {
+				ArrayList<Callable<byte[]>> tasks = new ArrayList<>();
+				for (int chunk = first; chunk < Math.min(first + inFlight, seeds.length); chunk++) {
+					long chunkSeed = seeds[chunk];
+					int count = Math.min(CHUNK, transactionCount - chunk * CHUNK);
+					tasks.add(() -> {
+						SplittableRandom chunkRandom = new SplittableRandom(chunkSeed);
+						ByteArrayOutputStream bytes = new ByteArrayOutputStream(count * 128);
+						BinarySnapshot.RecordWriter records = new BinarySnapshot.RecordWriter(bytes);
+						for (int i = 0; i < count; i++) {
+							records.transaction(transaction(chunkRandom, products, memberIDs, popularity), catalog);
+						}
+						return bytes.toByteArray();
+					});
+				}
+				for (byte[] chunk : run(tasks, threads)) {
+					stream.write(chunk);
+				}
+			}
+			out.end();
+		} catch (IOException | RuntimeException e) {
+			Files.deleteIfExists(temp);
+			throw e;
+		}
+		GroceryStore.moveAtomically(temp, file);
+	}
+
+	// One seed per chunk of transactions, drawn in order so chunks do not depend on the thread count.
+	private long[] chunkSeeds(SplittableRandom random) {
+		long[] seeds = new long[(transactionCount + CHUNK - 1) / CHUNK];
+		for (int i = 0; i < seeds.length; i++) {
+			seeds[i] = random.nextLong();
+		}
+		return seeds;
+	}
+
+	// Runs the tasks on a pool of the given size and returns their results in task order.
+	private static <T> List<T> run(List<Callable<T>> tasks, int threads) {
+		ArrayList<T> results = new ArrayList<>(tasks.size());
+		ForkJoinPool pool = new ForkJoinPool(Math.max(threads, 1));
+		try {
+			for (Future<T> result : pool.invokeAll(tasks)) {
+				results.add(result.get());
+			}
+		} catch (ExecutionException e) {
+			throw new RuntimeException(e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} finally {
+			pool.shutdown();
+		}
+		return results;
+	}
+
+	private static Member member(SplittableRandom random, int index, int memberID) {
+		String name = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+		String address = (100 + random.nextInt(9900)) + " " + STREETS[random.nextInt(STREETS.length)] + ", "
+				+ CITIES[random.nextInt(CITIES.length)];
+		Member member = new Member(name, address, String.format("612-555-%04d", index % 10_000));
+		member.setMemberID(memberID);
+		member.setEnrollmentDate(START.minusDays(random.nextInt(5 * DAYS)));
+		return member;
+	}
+
+	// Names are unique: the index picks the flavor, then the food, then a pack number.
+	private static Product product(SplittableRandom random, int index) {
+		String name = FLAVORS[index % FLAVORS.length] + " " + FOODS[index / FLAVORS.length % FOODS.length];
+		int pack = index / (FLAVORS.length * FOODS.length);
+		if (pack > 0) {
+			name += " " + (pack + 1) + "-Pack";
+		}
+		int restock = 2 + random.nextInt(19);
+		Product product = new Product(name, FIRST_PRODUCT_ID + index, restock, 0, restock * (2 + random.nextInt(20)));
+		product.setPriceCents(49 + random.nextInt(1951));
+		return product;
+	}
+
+	// A basket of about itemsPerBasket line items, products drawn by popularity. A product
+	// drawn twice gets one line item, as in a checkout.
+	private Transaction transaction(SplittableRandom random, Product[] products, int[] memberIDs, ZipfSampler popularity) {
+		int items = 1 + random.nextInt(2 * itemsPerBasket - 1);
+		ArrayList<LineItem> lineItems = new ArrayList<>(items);
+		int[] productIndexes = new int[items];
+		int[] quantities = new int[items];
+		int lines = 0;
+		for (int i = 0; i < items; i++) {
+			int product = popularity.sample(random);
+			int quantity = random.nextInt(10) < 7 ? 1 : 2 + random.nextInt(4);
+			int line = 0;
+			while (line < lines && productIndexes[line] != product) {
+				line++;
+			}
+			if (line == lines) {
+				productIndexes[lines++] = product;
+			}
+			quantities[line] += quantity;
+		}
+		int totalProducts = 0;
+		long totalCents = 0;
+		for (int line = 0; line < lines; line++) {
+			LineItem lineItem = new LineItem(products[productIndexes[line]], quantities[line]);
+			lineItems.add(lineItem);
+			totalProducts += quantities[line];
+			totalCents += lineItem.getPriceCents();
+		}
+		ZonedDateTime dateOfSale = START.plusDays(random.nextInt(DAYS)).plusSeconds(8 * 3600 + random.nextInt(14 * 3600));
+		return Transaction.ofCents(memberIDs[random.nextInt(memberIDs.length)], lineItems, totalProducts, totalCents,
+				dateOfSale);
+	}
+
+	/**
+	 * Draws product indexes with Zipf distributed popularity: the product of rank k is
+	 * drawn with probability proportional to 1 / k^exponent. Ranks are shuffled over the
+	 * products so the most popular ones are not simply the lowest IDs. Sampling is a
+	 * binary search of the cumulative distribution, safe from any number of threads.
+	 */
+	static class ZipfSampler {
+		private final double[] cumulative;
+		private final int[] productAtRank;
+
+		ZipfSampler(int products, double exponent, SplittableRandom random) {
+			cumulative = new double[products];
+			double total = 0;
+			for (int rank = 0; rank < products; rank++) {
+				total += 1 / Math.pow(rank + 1, exponent);
+				cumulative[rank] = total;
+			}
+			for (int rank = 0; rank < products; rank++) {
+				cumulative[rank] /= total;
+			}
+			productAtRank = new int[products];
+			for (int i = 0; i < products; i++) {
+				productAtRank[i] = i;
+			}
+			for (int i = products - 1; i > 0; i--) {
+				int j = random.nextInt(i + 1);
+				int swap = productAtRank[i];
+				productAtRank[i] = productAtRank[j];
+				productAtRank[j] = swap;
+			}
+		}
+
+		/**
+		 * @param SplittableRandom random - random stream of the calling thread
+		 * @return int index of the product drawn
+		 */
+		int sample(SplittableRandom random) {
+			double u = random.nextDouble();
+			int low = 0;
+			int high = cumulative.length - 1;
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (cumulative[mid] < u) {
+					low = mid + 1;
+				} else {
+					high = mid;
+				}
+			}
+			return productAtRank[low];
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 6) {
+			System.out.println("Usage: java DataGenerator seed members products transactions itemsPerBasket file [threads]");
+			return;
+		}
+		DataGenerator generator = new DataGenerator(Long.parseLong(args[0]), Integer.parseInt(args[1]),
+				Integer.parseInt(args[2]), Integer.parseInt(args[3]), Integer.parseInt(args[4]));
+		int threads = args.length > 6 ? Integer.parseInt(args[6]) : Runtime.getRuntime().availableProcessors();
+		long start = System.nanoTime();
+		generator.writeSnapshot(Paths.get(args[5]), threads);
+		System.out.printf("Wrote %s in %d ms%n", args[5], (System.nanoTime() - start) / 1_000_000);
+	}
+}
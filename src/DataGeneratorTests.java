@@ -0,0 +1,58 @@
+import static org.junit.Assert.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import org.junit.Test;
+
+public class DataGeneratorTests {
+    /**
+     * Covers the synthetic store used for load tests and benchmarks.
+     */
+
+    @Test
+    public void testSnapshotIsReproducible() throws IOException {
+        Path directory = Files.createTempDirectory("grocery_generator");
+        Path single = directory.resolve("single.bin");
+        Path parallel = directory.resolve("parallel.bin");
+        new DataGenerator(7, 50, 300, 25_000, 4).writeSnapshot(single, 1);
+        new DataGenerator(7, 50, 300, 25_000, 4).writeSnapshot(parallel, 3);
+        assertTrue("The thread count should not change the data.",
+                Arrays.equals(Files.readAllBytes(single), Files.readAllBytes(parallel)));
+
+        Path otherSeed = directory.resolve("other.bin");
+        new DataGenerator(8, 50, 300, 25_000, 4).writeSnapshot(otherSeed, 1);
+        assertFalse(Arrays.equals(Files.readAllBytes(single), Files.readAllBytes(otherSeed)));
+
+        GroceryStore store = GroceryStore.instance();
+        store.clear();
+        assertTrue(store.open(single));
+        assertEquals(25_000, store.getSales(DataGenerator.START.toLocalDate().minusDays(1),
+                DataGenerator.START.toLocalDate().plusDays(366)).getTransactionCount());
+        store.clear();
+    }
+
+    @Test
+    public void testGeneratedStoreHasSkewedSales() {
+        GroceryStore store = GroceryStore.instance();
+        store.clear();
+        new DataGenerator(11, 100, 1000, 20_000, 3).generate(store, 2);
+
+        HashSet<String> names = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            Product product = store.getProduct(DataGenerator.FIRST_PRODUCT_ID + i);
+            assertNotNull(product);
+            names.add(product.getProductName());
+        }
+        assertEquals("Product names should be unique.", 1000, names.size());
+
+        SalesRollup.SalesTotals year = store.getSales(DataGenerator.START.toLocalDate().minusDays(1),
+                DataGenerator.START.toLocalDate().plusDays(366));
+        assertEquals(20_000, year.getTransactionCount());
+        long top = year.getProductSales().get(0).getRevenueCents();
+        long median = year.getProductSales().get(year.getProductSales().size() / 2).getRevenueCents();
+        assertTrue("The most popular product should far outsell a typical one.", top > 20 * median);
+        store.clear();
+    }
+}
@@ -0,0 +1,119 @@
+import static org.junit.Assert.*;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class EventSinkTests {
+    /**
+     * Covers how the store reports carts, shipments, price changes and errors.
+     */
+
+    // remembers the events it receives
+    private static class RecordingSink extends SilentEventSink {
+        private final List<String> events = new ArrayList<>();
+
+        @Override
+        public void cartUpdated(Cart cart) {
+            events.add("cart " + cart.calculateSalesCents());
+        }
+
+        @Override
+        public void priceUpdated(Product product) {
+            events.add("price " + product.getPriceCents());
+        }
+
+        @Override
+        public void notice(String message) {
+            events.add(message);
+        }
+    }
+
+    @Test
+    public void testStoreEmitsEvents() {
+        GroceryStore store = GroceryStore.instance();
+        RecordingSink sink = new RecordingSink();
+        store.setEventSink(sink);
+        try {
+            Member shopper = new Member("Event Shopper", "1 Sink St.", "612-555-0123");
+            store.addMember(shopper);
+            Product jam = new Product("Event Jam", 88401, 2, 3.00, 20);
+            store.addProductToCatalog(jam);
+            store.openCart("events", shopper.getMemberID());
+            store.addProductToCart("events", 88401, 2);
+            store.addProductToCart("events", 88401, 0);
+            store.updatePrice(88401, 3.25);
+            store.closeCart("events");
+
+            assertEquals(3, sink.events.size());
+            assertEquals("cart 600", sink.events.get(0));
+            assertEquals("Enter Valid Quantity.", sink.events.get(1));
+            assertEquals("price 325", sink.events.get(2));
+        } finally {
+            store.setEventSink(new ConsoleEventSink());
+        }
+    }
+
+    @Test
+    public void testAsyncSinkPrintsCopiesInOrder() throws InterruptedException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Product bread = new Product("Async Bread", 88402, 2, 2.00, 20);
+        Cart cart = new Cart(100);
+        Cart expected = new Cart(100);
+        expected.addProduct(bread, 1);
+        try (AsyncEventSink sink = new AsyncEventSink(new PrintStream(bytes, true), 4)) {
+            cart.addProduct(bread, 1);
+            sink.cartUpdated(cart);
+            cart.addProduct(bread, 4); // changes after the event must not show in it
+            for (int i = 0; i < 20; i++) {
+                sink.notice("notice " + i);
+            }
+            sink.flush();
+            String printed = bytes.toString();
+            assertTrue(printed.startsWith(ConsoleEventSink.Events.cart(new StringBuilder(), expected).toString()));
+            assertTrue(printed.indexOf("notice 3\n") < printed.indexOf("notice 19\n"));
+            assertTrue(printed.endsWith("notice 19\n"));
+        }
+    }
+
+    @Test
+    public void testAsyncSinkClosePrintsEverythingWhenInterrupted() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream slow = new PrintStream(bytes, true) {
+            @Override
+            public void print(Object text) {
+                try {
+                    Thread.sleep(5); // a console that cannot keep up
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.print(text);
+            }
+        };
+        AsyncEventSink sink = new AsyncEventSink(slow, 4);
+        for (int i = 0; i < 20; i++) {
+            sink.notice("notice " + i);
+        }
+        Thread.currentThread().interrupt();
+        sink.close();
+        assertTrue("The interrupt should be kept for the caller.", Thread.interrupted());
+        assertTrue(bytes.toString().endsWith("notice 19\n"));
+        sink.notice("after close");
+        sink.close();
+        assertFalse(bytes.toString().contains("after close"));
+    }
+
+    @Test
+    public void testAsyncSinkPrintsStackTraceAfterItsMessage() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (AsyncEventSink sink = new AsyncEventSink(new PrintStream(bytes, true), 4)) {
+            sink.error("Could not save.", new IllegalStateException("disk full"));
+            sink.notice("after the error");
+        }
+        String printed = bytes.toString();
+        int trace = printed.indexOf("java.lang.IllegalStateException: disk full");
+        assertTrue("The trace should go to the sink's stream.", trace > printed.indexOf("Could not save."));
+        assertTrue(trace < printed.indexOf("after the error"));
+    }
+}
@@ -1,6 +1,18 @@
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiFunction;
 
 /**
  * GroceryStore is a facade class that handles operations that
@@ -14,8 +26,22 @@ public class GroceryStore {
 	private ProductList products = new ProductList();
 	private TransactionList transactions = new TransactionList();
 	private ShipmentList shipments = new ShipmentList();
-	private Cart cart;
+	private SalesRollup sales = new SalesRollup(ZoneId.systemDefault()); // daily sales totals, fed as transactions are saved
+	private final StoreMetrics metrics = new StoreMetrics(); // call counts and latencies of the operations below
+	private volatile StoreEventSink events = new ConsoleEventSink(); // where carts, notices and errors are shown
+	private Map<String, Cart> sessions = new ConcurrentHashMap<>(); // open Carts by checkout session ID
+	private boolean columnarTransactions = false; // see setColumnarTransactions
+	private static final String DEFAULT_SESSION = "default"; // session used by the single register API
+	private StoreJournal journal; // write-ahead log of changes, null unless openJournal was called
+	private final ReentrantReadWriteLock checkpointLock = new ReentrantReadWriteLock(); // changes share it, checkpoints hold it alone
 	private static GroceryStore groceryStore;
+	public static final int TEXT_FORMAT = 0; // pipe delimited text, see save()
+	public static final int BINARY_FORMAT = 1; // see BinarySnapshot
+	public static final String BINARY_EXTENSION = ".bin";
+	private static final int SAVE_BUFFER_SIZE = 1 << 20; // save() writes in chunks of this size
+	private static final int LISTING_PAGE_SIZE = 1000; // full listings are written this many items at a time
+	private static final String[] RECORD_TYPES = { "member", "product", "shipment", "transaction" }; // text format record types
+	private static final long MIN_LOAD_CHUNK = 1 << 20; // text saves smaller than this are read by one thread
 
 	/**
 	 * Private for the singleton pattern Creates the catalog and member collection
@@ -44,7 +70,16 @@ public class GroceryStore {
 	 * @return boolean success indicator
 	 */
 	public boolean addMember(Member member) {
-		return members.addMember(member);
+		beginChange();
+		try {
+			boolean added = members.addMember(member);
+			if (added && journal != null) {
+				journal.memberAdded(member);
+			}
+			return added;
+		} finally {
+			endChange();
+		}
 	}
 
 	/**
@@ -55,7 +90,16 @@ public class GroceryStore {
 	 * @return boolean success indicator
 	 */
 	public boolean removeMember(int memberID) {
-		return members.removeMember(memberID);
+		beginChange();
+		try {
+			boolean removed = members.removeMember(memberID);
+			if (removed && journal != null) {
+				journal.memberRemoved(memberID);
+			}
+			return removed;
+		} finally {
+			endChange();
+		}
 	}
 
 	/**
@@ -66,16 +110,8 @@ public class GroceryStore {
 	 * @return ArrayList of Members with matching names
 	 */
 	public ArrayList<Member> retrieveMembersByName(String name) {
-		ArrayList<Member> memberList = members.getMemberList();
-		ArrayList<Member> matchingMembers = new ArrayList<>();
-
-		for (Member member : memberList) {
-			// comparing by lowercase to get rid of case sensitivity
-			if (member.getMemberName().equalsIgnoreCase(name)) {
-				matchingMembers.add(member);
-			}
-		}
-		return matchingMembers;
+		// the name index in MemberList ignores case
+		return members.getMembersByName(name);
 	}
 
 	/**
@@ -88,12 +124,41 @@ public class GroceryStore {
 			System.out.println("There are currently no members in the system.");
 
 		} else {
-			for (Member member : memberList) {
-				member.print();
-			}
+			writeMembers(new PrintWriter(System.out));
 		}
 	}
 
+	/**
+	 * Gets one page of members, in the order they were enrolled.
+	 * 
+	 * @param long cursor - Page.FIRST, or the next cursor of the previous page
+	 * @param int pageSize - the most members to return
+	 * @return Page of members
+	 */
+	public Page<Member> getMembers(long cursor, int pageSize) {
+		return members.getPage(cursor, pageSize);
+	}
+
+	/**
+	 * Prints one page of members, see getMembers.
+	 * 
+	 * @return Page the members printed
+	 */
+	public Page<Member> listMembers(long cursor, int pageSize) {
+		return printPage(members.getPage(cursor, pageSize), Member::format);
+	}
+
+	/**
+	 * Writes every member as listAllMembers shows them, a page at a time. The writer is
+	 * flushed but not closed.
+	 * 
+	 * @param Writer to - where to write the members
+	 * @return boolean success indicator
+	 */
+	public boolean writeMembers(Writer to) {
+		return writeListing(to, members::getPage, Member::format);
+	}
+
 	/**
 	 * Attempts to restock a product by adding the product to the ShipmentList.
 	 * Quantity ordered should be 2x minimum restock quantity.
@@ -102,7 +167,24 @@ public class GroceryStore {
 	 * @return boolean success indicator
 	 */
 	public boolean restockProduct(Product product) {
-		return shipments.addProductOrder(product);
+		beginChange();
+		try {
+			boolean ordered = shipments.addProductOrder(product);
+			if (journal != null) {
+				journal.productOrdered(product.getProductID());
+			}
+			return ordered;
+		} finally {
+			endChange();
+		}
+	}
+
+	// Orders the standard restock quantity of a product that has run low, see
+	// LowStockTracker.needsRestock, unless the product is already on order.
+	private void restockIfLow(Product product) {
+		if (LowStockTracker.needsRestock(product) && !shipments.getOrderStatus(product.getProductID())) {
+			restockProduct(product);
+		}
 	}
 
 	/**
@@ -111,17 +193,60 @@ public class GroceryStore {
 	 * @return boolean success indicator
 	 */
 	public boolean addProductToCatalog(Product product) {
-		return products.addProduct(product);
+		beginChange();
+		try {
+			boolean added = products.addProduct(product);
+			if (added && product != null && journal != null) {
+				journal.productAdded(product);
+			}
+			return added;
+		} finally {
+			endChange();
+		}
 	}
 
 	// get product by int product ID
 	public Product getProduct(int productID) {
-		return products.getProduct(productID);
+		long start = metrics.start();
+		Product product = null;
+		try {
+			product = products.getProduct(productID);
+			return product;
+		} finally {
+			metrics.record(StoreMetrics.GET_PRODUCT, start, product != null);
+		}
 	}
 
 	// get product by String product name
 	public Product getProduct(String productName) {
-		return products.getProduct(productName);
+		long start = metrics.start();
+		Product product = null;
+		try {
+			product = products.getProduct(productName);
+			return product;
+		} finally {
+			metrics.record(StoreMetrics.GET_PRODUCT, start, product != null);
+		}
+	}
+
+	/**
+	 * Suggests products for a partly typed name. A product matches when its name has a
+	 * word starting with each word typed, ignoring case, so "choc mi" finds "Chocolate Milk"
+	 * and "Mint Chocolate".
+	 * 
+	 * @param String text - the start of one or more words of the name
+	 * @param int k - the most products to return
+	 * @return List of up to k matching products, empty if none match
+	 */
+	public List<Product> searchProducts(String text, int k) {
+		long start = metrics.start();
+		List<Product> found = null;
+		try {
+			found = products.searchProducts(text, k);
+			return found;
+		} finally {
+			metrics.record(StoreMetrics.SEARCH_PRODUCTS, start, found != null && !found.isEmpty());
+		}
 	}
 
 	/**
@@ -134,12 +259,41 @@ public class GroceryStore {
 			System.out.println("There are currently no products in the system.\n");
 
 		} else {
-			for (Product product : productList) {
-				product.print();
-			}
+			writeProducts(new PrintWriter(System.out));
 		}
 	}
 
+	/**
+	 * Gets one page of products, in the order they were added to the catalog.
+	 * 
+	 * @param long cursor - Page.FIRST, or the next cursor of the previous page
+	 * @param int pageSize - the most products to return
+	 * @return Page of products
+	 */
+	public Page<Product> getProducts(long cursor, int pageSize) {
+		return products.getPage(cursor, pageSize);
+	}
+
+	/**
+	 * Prints one page of products, see getProducts.
+	 * 
+	 * @return Page the products printed
+	 */
+	public Page<Product> listProducts(long cursor, int pageSize) {
+		return printPage(products.getPage(cursor, pageSize), GroceryStore::formatProduct);
+	}
+
+	/**
+	 * Writes every product as listAllProducts shows them, a page at a time. The writer is
+	 * flushed but not closed.
+	 * 
+	 * @param Writer to - where to write the products
+	 * @return boolean success indicator
+	 */
+	public boolean writeProducts(Writer to) {
+		return writeListing(to, products::getPage, GroceryStore::formatProduct);
+	}
+
 	/**
 	 * Initiates new Cart
 	 * 
@@ -147,27 +301,103 @@ public class GroceryStore {
 	 * @return boolean valid Member ID checker
 	 */
 	public boolean createCart(int memberID) {
+		return openCart(DEFAULT_SESSION, memberID);
+	}
+
+	/**
+	 * Initiates new Cart for a checkout session. Each register uses its own session ID,
+	 * so many checkouts can be in progress at once. Opening a session that already has
+	 * a cart replaces that cart.
+	 * 
+	 * @param sessionID register or session the Cart belongs to
+	 * @param memberID  Member ID linked to Cart
+	 * @return boolean valid Member ID checker
+	 */
+	public boolean openCart(String sessionID, int memberID) {
 
 		Member m = members.getMember(memberID);
 		if (m == null)
 			return false;
 
-		cart = new Cart(memberID);
+		checkpointLock.readLock().lock();
+		try {
+			Cart replaced = sessions.put(sessionID, new Cart(memberID));
+			if (replaced != null) {
+				releaseStock(replaced);
+			}
+		} finally {
+			checkpointLock.readLock().unlock();
+		}
 		return true;
 	}
 
+	/**
+	 * Abandons the current Cart without creating a Transaction, returning its
+	 * reserved stock.
+	 * 
+	 * @return boolean true if a Cart was open
+	 */
+	public boolean cancelCart() {
+		return closeCart(DEFAULT_SESSION);
+	}
+
+	/**
+	 * Abandons the Cart of a checkout session without creating a Transaction,
+	 * returning its reserved stock.
+	 * 
+	 * @param sessionID register or session the Cart belongs to
+	 * @return boolean true if the session had an open Cart
+	 */
+	public boolean closeCart(String sessionID) {
+		checkpointLock.readLock().lock();
+		try {
+			Cart cart = sessions.remove(sessionID);
+			if (cart == null)
+				return false;
+
+			releaseStock(cart);
+			return true;
+		} finally {
+			checkpointLock.readLock().unlock();
+		}
+	}
+
+	// Puts the stock reserved by an abandoned Cart back on the shelf.
+	private void releaseStock(Cart cart) {
+		for (LineItem l : cart.getInCart()) {
+			l.getProduct().updateStock(l.getQuantity());
+		}
+	}
+
+	// Takes the stock of a Cart off the shelf again after releaseStock.
+	private void reserveStock(Cart cart) {
+		for (LineItem l : cart.getInCart()) {
+			l.getProduct().updateStock(-l.getQuantity());
+		}
+	}
+
 	/**
 	 * Getter for Cart
 	 * 
 	 * @return Cart object
 	 */
 	public Cart getCart() {
-		return cart;
+		return getCart(DEFAULT_SESSION);
+	}
+
+	/**
+	 * Getter for the Cart of a checkout session
+	 * 
+	 * @param sessionID register or session the Cart belongs to
+	 * @return Cart object, null if the session has no open Cart
+	 */
+	public Cart getCart(String sessionID) {
+		return sessions.get(sessionID);
 	}
 
 	/**
 	 * Add LineItems to Current Cart using Products and Quantities
-	 * Checks Product Stock before adding, if insufficient it fails
+	 * Reserves the Product Stock before adding, if insufficient it fails
 	 * If current Product already exists in Cart, quantity gets updated in cart
 	 * Fails if invalid Product ID
 	 * 
@@ -176,39 +406,60 @@ public class GroceryStore {
 	 * @return boolean success indicator
 	 */
 	public boolean addProductToCart(int productID, int quantity) {
+		return addProductToCart(DEFAULT_SESSION, productID, quantity);
+	}
+
+	/**
+	 * Add LineItems to the Cart of a checkout session, see addProductToCart(int, int)
+	 * 
+	 * @param sessionID register or session the Cart belongs to
+	 * @param productID product to be added
+	 * @param quantity  quantity of product to be added
+	 * @return boolean success indicator
+	 */
+	public boolean addProductToCart(String sessionID, int productID, int quantity) {
+		long start = metrics.start();
+		boolean added = false;
+		try {
+			added = addToCart(sessionID, productID, quantity);
+			return added;
+		} finally {
+			metrics.record(StoreMetrics.ADD_PRODUCT_TO_CART, start, added);
+		}
+	}
+
+	private boolean addToCart(String sessionID, int productID, int quantity) {
+		Cart cart = sessions.get(sessionID);
+		if (cart == null) {
+			events.notice("No cart is open for this checkout. Try Again.");
+			return false;
+		}
 		Product product = products.getProduct(productID);
 		if (product == null) {
-			System.out.println("Unrecognizable Product ID. Try Again.");
+			events.notice("Unrecognizable Product ID. Try Again.");
 			return false;
 		}
 		if (quantity <= 0) {
-			System.out.println("Enter Valid Quantity.");
-			return false;
-		}
-		if (product.getCurrentStock() < quantity) {
-			System.out.println("Product stock is insufficient for this order. Try Again.");
+			events.notice("Enter Valid Quantity.");
 			return false;
 		}
-		if (product.getCurrentStock() - quantity >= product.getRestockAmount()) {
-			shipments.addProductOrder(product);
-		}
-		for (LineItem l : cart.getInCart()) {
-			if (l.getProduct().equals(product)) {
-				if (l.getQuantity() + quantity > product.getCurrentStock()) {
-					System.out.println("Product stock is insufficient for this order. Try Again.");
-					return false;
-				}
-				l.setQuantity(l.getQuantity() + quantity);
-				cart.print();
-				return true;
-
+		// stock reserved in a cart must not change while a checkpoint is written
+		checkpointLock.readLock().lock();
+		try {
+			// reserve the stock now, so two registers can never sell the same units
+			if (!product.tryDecrementStock(quantity)) {
+				events.notice("Product stock is insufficient for this order. Try Again.");
+				return false;
 			}
+			restockIfLow(product);
+			// merges with the product's LineItem if it is already in the cart
+			boolean success = cart.addProduct(product, quantity);
+
+			events.cartUpdated(cart);
+			return success;
+		} finally {
+			checkpointLock.readLock().unlock();
 		}
-		LineItem item = new LineItem(product, quantity);
-		boolean success = cart.addLineItemToCart(item);
-
-		cart.print();
-		return success;
 	}
 
 	/**
@@ -221,20 +472,58 @@ public class GroceryStore {
 	 * @return Remaining Balance or Change if amount is negative
 	 */
 	public double finalizeCart(double money) {
-		double totalPrice = cart.calculateSales();
-		if (money < totalPrice) {
-			return totalPrice - money;
+		return finalizeCart(DEFAULT_SESSION, money);
+	}
+
+	/**
+	 * Finalize the Transaction of a checkout session, see finalizeCart(double).
+	 * Safe to call from many registers at once: the stock was already reserved when
+	 * each item was added, so finalizing only appends the Transaction to the shared
+	 * TransactionList. The session is closed once the Transaction is saved.
+	 * 
+	 * @param sessionID register or session the Cart belongs to
+	 * @param money     Money used to cover transaction;
+	 * @return Remaining Balance or Change if amount is negative
+	 */
+	public double finalizeCart(String sessionID, double money) {
+		long start = metrics.start();
+		boolean paid = false;
+		try {
+			double balance = checkOut(sessionID, money);
+			paid = balance <= 0;
+			return balance;
+		} finally {
+			metrics.record(StoreMetrics.FINALIZE_CART, start, paid);
 		}
-		for (LineItem l : cart.getInCart()) {
-			l.getProduct().setCurrentStock(l.getProduct().getCurrentStock() - l.getQuantity());
-			if (l.getProduct().getCurrentStock() <= l.getProduct().getRestockAmount()) {
-				shipments.addProductOrder(l.getProduct());
+	}
+
+	private double checkOut(String sessionID, double money) {
+		Cart cart = sessions.get(sessionID);
+		if (cart == null) {
+			throw new IllegalArgumentException("No cart is open for checkout session " + sessionID);
+		}
+		// amounts are added up in cents, see Money
+		long totalCents = cart.calculateSalesCents();
+		long paidCents = Money.toCents(money);
+		if (paidCents < totalCents) {
+			return Money.toDollars(totalCents - paidCents);
+		}
+		beginChange();
+		try {
+			for (LineItem l : cart.getInCart()) {
+				restockIfLow(l.getProduct());
+			}
+			Transaction finalTransaction = cart.createTransaction();
+			transactions.addTransaction(finalTransaction);
+			sales.addTransaction(finalTransaction);
+			if (journal != null) {
+				journal.sale(finalTransaction, products);
 			}
+			sessions.remove(sessionID, cart);
+			return Money.toDollars(totalCents - paidCents);
+		} finally {
+			endChange();
 		}
-		totalPrice -= money;
-		Transaction finalTransaction = cart.createTransaction();
-		transactions.addTransaction(finalTransaction);
-		return totalPrice;
 	}
 
 	/**
@@ -245,24 +534,158 @@ public class GroceryStore {
 	 * @return boolean success indicator
 	 */
 	public boolean processShipment(int productID) {
-		boolean orderFound = shipments.getOrderStatus(productID);
-
-		if (orderFound) {
-			Product product = products.getProduct(productID);
-			System.out.println(product.getProductName() + " is on order.");
-			System.out.println("------- Quantity on order: " + product.getRestockAmount() * 2 + " -------");
-			// updating stock quantity.
-			product.setCurrentStock(product.getCurrentStock() + (product.getRestockAmount() * 2));
-			System.out.println("------- Stock updated. -------");
-			// this product's shipment is now processed, so we remove the order from
-			// shipments.
-			shipments.removeProductOrder(productID);
-			product.print(); // print updated details.
-			return true;
+		long start = metrics.start();
+		boolean processed = false;
+		try {
+			processed = receiveShipment(productID);
+			return processed;
+		} finally {
+			metrics.record(StoreMetrics.PROCESS_SHIPMENT, start, processed);
+		}
+	}
 
-		} else { // product was not on order
-			return false;
+	private boolean receiveShipment(int productID) {
+		beginChange();
+		try {
+			ProductOrder order = shipments.getOrder(productID);
+
+			if (order != null) {
+				Product product = order.getProduct();
+				// updating stock quantity.
+				product.updateStock(order.getQuantity());
+				// this product's shipment is now processed, so we remove the order from
+				// shipments.
+				shipments.removeProductOrder(productID);
+				if (journal != null) {
+					journal.shipmentProcessed(productID);
+				}
+				events.shipmentProcessed(product, order.getQuantity()); // shows the updated details
+				return true;
+
+			} else { // product was not on order
+				return false;
+			}
+		} finally {
+			endChange();
+		}
+	}
+
+	/**
+	 * Receives a whole delivery at once. Every product in the manifest is added to stock
+	 * and taken off its pending order in one pass, and the delivery is journaled as one
+	 * record. Repeated lines for a product are added together. A short delivery leaves the
+	 * rest on order, and products that were not on order are stocked anyway. Products that
+	 * are not in the catalog and quantities below 1 are not stocked.
+	 * 
+	 * @param int[] productIDs - the products delivered
+	 * @param int[] quantities - the quantity delivered of each product
+	 * @return ShipmentReceipt what was received, short, over, unexpected or unknown
+	 */
+	public ShipmentReceipt processManifest(int[] productIDs, int[] quantities) {
+		if (productIDs.length != quantities.length) {
+			throw new IllegalArgumentException("Every product ID needs a quantity.");
+		}
+		ShipmentReceipt receipt = new ShipmentReceipt();
+		IntHashMap<ShipmentReceipt.Line> lines = new IntHashMap<>(productIDs.length);
+		for (int i = 0; i < productIDs.length; i++) {
+			addManifestLine(receipt, lines, productIDs[i], quantities[i],
+					"entry " + (i + 1) + ": " + productIDs[i] + "|" + quantities[i]);
+		}
+		long start = metrics.start();
+		boolean complete = false;
+		try {
+			complete = receiveManifest(receipt);
+			return receipt;
+		} finally {
+			metrics.record(StoreMetrics.PROCESS_MANIFEST, start, complete);
+		}
+	}
+
+	/**
+	 * Receives a delivery from a manifest file, see processManifest(int[], int[]). The file
+	 * has one product per line: the product ID and the quantity delivered, separated by '|',
+	 * ',' or spaces. Blank lines and lines starting with '#' are skipped, and other lines
+	 * that cannot be read are listed in the receipt.
+	 * 
+	 * @param Path manifest - the manifest file
+	 * @return ShipmentReceipt what was received, null if the file could not be read
+	 */
+	public ShipmentReceipt processManifest(Path manifest) {
+		ShipmentReceipt receipt = new ShipmentReceipt();
+		IntHashMap<ShipmentReceipt.Line> lines = new IntHashMap<>();
+		try (BufferedReader reader = Files.newBufferedReader(manifest, StandardCharsets.UTF_8)) {
+			String text;
+			int lineNumber = 0;
+			while ((text = reader.readLine()) != null) {
+				lineNumber++;
+				String trimmed = text.trim();
+				if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+					continue;
+				}
+				String[] fields = trimmed.split("\\s*[|,]\\s*|\\s+");
+				int productID;
+				int quantity;
+				try {
+					productID = fields.length == 2 ? Integer.parseInt(fields[0]) : -1;
+					quantity = fields.length == 2 ? Integer.parseInt(fields[1]) : 0;
+				} catch (NumberFormatException e) {
+					quantity = 0; // rejected below
+					productID = -1;
+				}
+				addManifestLine(receipt, lines, productID, quantity, "line " + lineNumber + ": " + trimmed);
+			}
+		} catch (IOException e) {
+			events.error("The manifest could not be read.", e);
+			return null;
+		}
+		long start = metrics.start();
+		boolean complete = false;
+		try {
+			complete = receiveManifest(receipt);
+			return receipt;
+		} finally {
+			metrics.record(StoreMetrics.PROCESS_MANIFEST, start, complete);
+		}
+	}
+
+	private static void addManifestLine(ShipmentReceipt receipt, IntHashMap<ShipmentReceipt.Line> lines, int productID,
+			int quantity, String text) {
+		if (quantity < 1) {
+			receipt.reject(text);
+			return;
+		}
+		ShipmentReceipt.Line line = lines.get(productID);
+		if (line == null) {
+			lines.put(productID, receipt.addLine(productID, quantity));
+		} else if (!receipt.addDelivered(line, quantity)) {
+			receipt.reject(text);
+		}
+	}
+
+	// Stocks every line of the receipt, returns false if any line was not stocked
+	private boolean receiveManifest(ShipmentReceipt receipt) {
+		List<ShipmentReceipt.Line> lines = receipt.getLines();
+		int[] stockedIDs = new int[lines.size()];
+		int[] stockedQuantities = new int[lines.size()];
+		int stocked = 0;
+		beginChange();
+		try {
+			for (ShipmentReceipt.Line line : lines) {
+				Product product = products.getProduct(line.getProductID());
+				if (product == null) {
+					continue; // stays UNKNOWN
+				}
+				line.stocked(product.getProductName(), shipments.receive(product, line.getDelivered()));
+				stockedIDs[stocked] = line.getProductID();
+				stockedQuantities[stocked++] = line.getDelivered();
+			}
+			if (journal != null && stocked > 0) {
+				journal.manifestReceived(stockedIDs, stockedQuantities, stocked);
+			}
+		} finally {
+			endChange();
 		}
+		return stocked == lines.size() && receipt.getRejected().isEmpty();
 	}
 
 	/**
@@ -271,24 +694,128 @@ public class GroceryStore {
 	 * 
 	 */
 	public void listOutstandingOrders() {
-		ArrayList<Product> productsOnOrder = shipments.getProductsOnOrder();
+		List<ProductOrder> orders = shipments.getOrders();
 
-		if (productsOnOrder.isEmpty()) {
+		if (orders.isEmpty()) {
 			System.out.println("There are currently no products on order.\n");
 		} else {
 			System.out.println("------------ Products on order: ------------\n");
-			for (Product product : productsOnOrder) {
-				System.out.println("----------------------------------");
-				System.out.println("Name: " + product.getProductName());
-				System.out.println("ID: " + product.getProductID());
-				System.out.println("Current Stock: " + product.getCurrentStock());
-				System.out.println("Restock Amount: " + product.getRestockAmount());
-				System.out.println("Quantity on order: " + product.getRestockAmount() * 2);
-				System.out.println("----------------------------------\n");
+			writeOrders(new PrintWriter(System.out));
+		}
+	}
+
+	/**
+	 * Gets one page of the products on order, in the order they were ordered.
+	 * 
+	 * @param long cursor - Page.FIRST, or the next cursor of the previous page
+	 * @param int pageSize - the most orders to return
+	 * @return Page of orders
+	 */
+	public Page<ProductOrder> getOrders(long cursor, int pageSize) {
+		return shipments.getPage(cursor, pageSize);
+	}
+
+	/**
+	 * Prints one page of the products on order, see getOrders.
+	 * 
+	 * @return Page the orders printed
+	 */
+	public Page<ProductOrder> listOrders(long cursor, int pageSize) {
+		return printPage(shipments.getPage(cursor, pageSize), ProductOrder::format);
+	}
+
+	/**
+	 * Writes every order as listOutstandingOrders shows them, a page at a time. The writer
+	 * is flushed but not closed.
+	 * 
+	 * @param Writer to - where to write the orders
+	 * @return boolean success indicator
+	 */
+	public boolean writeOrders(Writer to) {
+		return writeListing(to, shipments::getPage, ProductOrder::format);
+	}
+
+	// Member and order details are printed with println, product details with print, so
+	// products are the only ones that already end with a blank line.
+	private static StringBuilder formatProduct(Product product, StringBuilder to) {
+		to = product.format(to);
+		to.setLength(to.length() - 1);
+		return to;
+	}
+
+	private static <T> Page<T> printPage(Page<T> page, BiFunction<T, StringBuilder, StringBuilder> format) {
+		StringBuilder text = new StringBuilder(256 * page.getItems().size());
+		for (T item : page.getItems()) {
+			format.apply(item, text).append('\n');
+		}
+		System.out.print(text);
+		return page;
+	}
+
+	// The list is only locked while a page is copied, and each page is formatted into one
+	// buffer and written with one call, so a full listing costs no more than its pages.
+	private <T> boolean writeListing(Writer to, BiFunction<Long, Integer, Page<T>> pages,
+			BiFunction<T, StringBuilder, StringBuilder> format) {
+		StringBuilder text = new StringBuilder(1 << 16);
+		try {
+			long cursor = Page.FIRST;
+			while (true) {
+				Page<T> page = pages.apply(cursor, LISTING_PAGE_SIZE);
+				for (T item : page.getItems()) {
+					format.apply(item, text).append('\n');
+				}
+				to.append(text);
+				text.setLength(0);
+				if (!page.hasMore()) {
+					break;
+				}
+				cursor = page.getNextCursor();
 			}
+			to.flush();
+			return true;
+		} catch (IOException e) {
+			events.error("The listing could not be written.", e);
+			return false;
 		}
 	}
 
+	/**
+	 * Get method for the products that need restocking, see LowStockTracker
+	 * 
+	 * @param int k - the number of products wanted
+	 * @return List<Product> up to k products at or below their restock amount, the
+	 *         furthest below it first
+	 */
+	public List<Product> getLowStock(int k) {
+		return products.getLowStock().topUrgent(k);
+	}
+
+	/**
+	 * Lists the products that need restocking, the furthest below their restock amount
+	 * first, with the quantity already on order for each.
+	 * 
+	 * @param int k - the number of products to list
+	 */
+	public void listLowStock(int k) {
+		LowStockTracker lowStock = products.getLowStock();
+		List<Product> urgent = lowStock.topUrgent(k);
+		if (urgent.isEmpty()) {
+			System.out.println("No products need restocking.\n");
+			return;
+		}
+		StringBuilder list = new StringBuilder();
+		list.append("------------ Products to restock: ------------\n");
+		list.append(String.format("%-10s %-30s %8s %8s %9s%n", "ID", "Name", "Stock", "Restock", "On order"));
+		for (Product product : urgent) {
+			ProductOrder order = shipments.getOrder(product.getProductID());
+			list.append(String.format("%-10d %-30s %8d %8d %9d%n", product.getProductID(), product.getProductName(),
+					product.getCurrentStock(), product.getRestockAmount(), order == null ? 0 : order.getQuantity()));
+		}
+		list.append("Showing ").append(urgent.size()).append(" of ").append(lowStock.size())
+				.append(" products that need restocking.\n");
+		System.out.println(list);
+	}
+
 	/**
 	 * Attempts to update the price of a product in the catalog, and prints updated
 	 * information on success.
@@ -299,18 +826,163 @@ public class GroceryStore {
 	 * @return boolean success indicator
 	 */
 	public boolean updatePrice(int productID, double newPrice) {
+		long start = metrics.start();
+		boolean updated = false;
+		try {
+			updated = changePrice(productID, newPrice);
+			return updated;
+		} finally {
+			metrics.record(StoreMetrics.UPDATE_PRICE, start, updated);
+		}
+	}
+
+	private boolean changePrice(int productID, double newPrice) {
 		Product product = products.getProduct(productID);
 
 		if (product == null) {
 			return false;
 		} else {
-			product.setPrice(newPrice);
-			System.out.println("Price has been updated.");
-			product.print();
+			beginChange();
+			try {
+				product.setPrice(newPrice);
+				if (journal != null) {
+					journal.priceUpdated(productID, product.getPriceCents());
+				}
+			} finally {
+				endChange();
+			}
+			events.priceUpdated(product);
 			return true;
 		}
 	}
 
+	/**
+	 * Starts journaling every change to the store in a directory, see StoreJournal.
+	 * If the directory already holds a journal, the store is replaced by the journaled
+	 * store, so this is also how the store is recovered after it stopped unexpectedly.
+	 * Otherwise the journal starts with a checkpoint of the current store.
+	 * 
+	 * @param directory directory for the checkpoints and journal
+	 * @return boolean success indicator
+	 */
+	public boolean openJournal(File directory) {
+		checkpointLock.writeLock().lock();
+		try {
+			closeJournal();
+			StoreJournal opened = new StoreJournal(directory, StoreJournal.DEFAULT_CHECKPOINT_INTERVAL);
+			MemberList recoveredMembers = new MemberList();
+			ProductList recoveredProducts = new ProductList();
+			ShipmentList recoveredShipments = new ShipmentList();
+			TransactionList recoveredTransactions = newTransactionList();
+			if (opened.recover(recoveredMembers, recoveredProducts, recoveredShipments, recoveredTransactions)) {
+				clear();
+				members = recoveredMembers;
+				products = recoveredProducts;
+				shipments = recoveredShipments;
+				transactions = recoveredTransactions;
+				sales.addTransactions(transactions, 0);
+				journal = opened;
+			} else {
+				journal = opened;
+				writeCheckpoint();
+			}
+			return true;
+		} catch (IOException e) {
+			events.error("A file error has occurred.", e);
+			return false;
+		} finally {
+			checkpointLock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Stops journaling changes. The journal directory keeps everything written so far.
+	 * 
+	 * @return boolean success indicator
+	 */
+	public boolean closeJournal() {
+		checkpointLock.writeLock().lock();
+		try {
+			if (journal != null) {
+				journal.close();
+				journal = null;
+			}
+			return true;
+		} catch (IOException e) {
+			events.error("A file error has occurred.", e);
+			return false;
+		} finally {
+			checkpointLock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Writes a checkpoint of the whole store to the journal, so recovery does not need
+	 * to replay the changes made before it. Changes wait while the checkpoint is written.
+	 * Checkpoints are also taken automatically every StoreJournal.DEFAULT_CHECKPOINT_INTERVAL changes.
+	 * 
+	 * @return boolean success indicator, false if no journal is open
+	 */
+	public boolean checkpoint() {
+		checkpointLock.writeLock().lock();
+		try {
+			if (journal == null) {
+				return false;
+			}
+			writeCheckpoint();
+			return true;
+		} catch (IOException e) {
+			events.error("A file error has occurred.", e);
+			return false;
+		} finally {
+			checkpointLock.writeLock().unlock();
+		}
+	}
+
+	// Caller holds the checkpoint write lock. Stock reserved in open carts is not sold yet,
+	// so it is put back on the shelf while the checkpoint is written.
+	private void writeCheckpoint() throws IOException {
+		releaseOpenCarts();
+		try {
+			journal.checkpoint(members, products, shipments, transactions);
+		} finally {
+			reserveOpenCarts();
+		}
+	}
+
+	// Caller holds the checkpoint write lock, so no cart changes until reserveOpenCarts.
+	private void releaseOpenCarts() {
+		for (Cart cart : sessions.values()) {
+			releaseStock(cart);
+		}
+	}
+
+	private void reserveOpenCarts() {
+		for (Cart cart : sessions.values()) {
+			reserveStock(cart);
+		}
+	}
+
+	// Every journaled change is made between beginChange and endChange, so its journal
+	// record is written in order and a checkpoint never sees half of it.
+	private void beginChange() {
+		checkpointLock.readLock().lock();
+		if (journal != null) {
+			journal.lock();
+		}
+	}
+
+	private void endChange() {
+		StoreJournal current = journal;
+		if (current != null) {
+			current.unlock();
+		}
+		checkpointLock.readLock().unlock();
+		if (current != null && current.checkpointDue() && checkpointLock.getReadHoldCount() == 0) {
+			checkpoint();
+		}
+	}
+
 	/**
 	 * Prints Transactions in Grocery Store in between two dates
 	 * 
@@ -319,6 +991,17 @@ public class GroceryStore {
 	 * @return boolean success indicator
 	 */
 	public boolean printTransactions(ZonedDateTime d1, ZonedDateTime d2) {
+		long start = metrics.start();
+		boolean printed = false;
+		try {
+			printed = listTransactions(d1, d2);
+			return printed;
+		} finally {
+			metrics.record(StoreMetrics.PRINT_TRANSACTIONS, start, printed);
+		}
+	}
+
+	private boolean listTransactions(ZonedDateTime d1, ZonedDateTime d2) {
 		if (d1.isAfter(d2)) {
 			System.out.println("Date 1 needs to be before Date 2. Try Again.\n");
 			return false;
@@ -334,11 +1017,66 @@ public class GroceryStore {
 		return true;
 	}
 
+	/**
+	 * Gets the sales of a range of days from the running sales totals, see SalesRollup.
+	 * Days follow the system time zone.
+	 *
+	 * @param first first day of the range
+	 * @param last  last day of the range, included
+	 * @return the sales totals of the range
+	 */
+	public SalesRollup.SalesTotals getSales(LocalDate first, LocalDate last) {
+		return sales.getSales(first, last);
+	}
+
+	/**
+	 * Prints the sales of one day: store totals and units and revenue per product.
+	 *
+	 * @param day the day to report
+	 */
+	public void printDailySales(LocalDate day) {
+		printSales("Sales for " + day, sales.getSales(day));
+	}
+
+	/**
+	 * Prints the sales of one month: store totals and units and revenue per product.
+	 *
+	 * @param month the month to report
+	 */
+	public void printMonthlySales(YearMonth month) {
+		printSales("Sales for " + month, sales.getSales(month.atDay(1), month.atEndOfMonth()));
+	}
+
+	private void printSales(String title, SalesRollup.SalesTotals totals) {
+		System.out.println("\n" + title);
+		System.out.println("................................................................");
+		if (totals.getTransactionCount() == 0) {
+			System.out.println("No Transactions Found.");
+			return;
+		}
+		System.out.println("Transactions: " + totals.getTransactionCount() + "   Units sold: " + totals.getUnitsSold()
+				+ "   Revenue: $" + Money.format(totals.getRevenueCents()));
+		for (SalesRollup.ProductSales sold : totals.getProductSales()) {
+			Product product = products.getProduct(sold.getProductID());
+			String name = product == null ? "Product " + sold.getProductID() : product.getProductName();
+			System.out.println(String.format("%-30s %8d %8d  $%s", name, sold.getProductID(), sold.getUnitsSold(),
+					Money.format(sold.getRevenueCents())));
+		}
+	}
+
+	/**
+	 * Saves the store to a file in the working directory, prompting for the file name.
+	 * Files ending in .txt are written in the text format, files ending in .bin are
+	 * written as a BinarySnapshot. An existing file is never overwritten, a number is
+	 * added to the name instead.
+	 * 
+	 * @return boolean success indicator
+	 */
 	public boolean save(){
 		String working_dir = System.getProperty("user.dir");
 		String fileName = "grocery_store.txt"; // Specifies a default file name.
 		Scanner scanner = new Scanner(System.in);
-		File file;
+		File file = null;
 		int newFileNameCounter = 1;
 		boolean nameSuccessful = false;
 		boolean saveSuccessful = false;
@@ -356,8 +1094,8 @@ public class GroceryStore {
 			}
 			fileName = fileName.trim();
 
-			if(!fileName.contains(".txt")){
-				System.out.print("Not a valid file extension. Please use .txt.");
+			if(!fileName.contains(".txt") && !fileName.endsWith(BINARY_EXTENSION)){
+				System.out.print("Not a valid file extension. Please use .txt, or " + BINARY_EXTENSION + " for a binary snapshot.");
 			} else if (fileName.isEmpty()) {
 				System.out.println("Invalid or Empty file passed.");
 			}
@@ -365,6 +1103,8 @@ public class GroceryStore {
 				nameSuccessful = true;
 			}
 		}
+		int format = fileName.endsWith(BINARY_EXTENSION) ? BINARY_FORMAT : TEXT_FORMAT;
+		String extension = format == BINARY_FORMAT ? BINARY_EXTENSION : ".txt";
 		// Attempt to save to current working directory
 		while(!saveSuccessful){
 			try{
@@ -373,7 +1113,7 @@ public class GroceryStore {
 				if(!file.createNewFile()){
 					String tempString;
 					tempString = fileName.substring(0, fileName.indexOf("."));
-					fileName = tempString + newFileNameCounter + ".txt";
+					fileName = tempString + newFileNameCounter + extension;
 					System.out.println("File already exists. Attempting to save as " + (fileName));
 					newFileNameCounter++;
 				}
@@ -388,215 +1128,557 @@ public class GroceryStore {
 			}
 		}
 
-		FileWriter saveState;
+		return save(file.toPath(), format);
+	}
 
-		try{
-			saveState = new FileWriter(fileName);
+	/**
+	 * Saves the store to a file without prompting. Files ending in .bin are written as a
+	 * BinarySnapshot, anything else in the text format. An existing file is replaced.
+	 * 
+	 * @param path file to write
+	 * @return boolean success indicator
+	 */
+	public boolean save(Path path) {
+		return save(path, path.toString().endsWith(BINARY_EXTENSION) ? BINARY_FORMAT : TEXT_FORMAT);
+	}
 
-			for(Member member : members.getMemberList())
-			{
-				saveState.write("Member|");
-				// Member Attributes: Name (First Last), MemberID (3 digit int), Address, Phone, Enrollment Date
-				saveState.write(member.getMemberName() + "|" + Integer.toString(member.getMemberID()) +
-						"|" + member.getAddress() + "|" + member.getPhoneNumber() + "|" +
-						member.getEnrollmentDate() + "\n");
+	/**
+	 * Saves the store to a file in the given format without prompting, replacing the file if
+	 * it exists. The store is written through a large buffer to a temporary file next to the
+	 * target, which is then renamed over the target, so the target always holds either the old
+	 * save or the complete new one. Changes to the store wait while it is saved.
+	 * 
+	 * @param path   file to write
+	 * @param format TEXT_FORMAT or BINARY_FORMAT
+	 * @return boolean success indicator
+	 */
+	public boolean save(Path path, int format) {
+		long start = metrics.start();
+		boolean saved = false;
+		try {
+			saved = writeSave(path, format);
+			return saved;
+		} finally {
+			metrics.record(StoreMetrics.SAVE, start, saved);
+		}
+	}
+
+	private boolean writeSave(Path path, int format) {
+		Path target = path.toAbsolutePath();
+		Path temp = null;
+		checkpointLock.writeLock().lock();
+		releaseOpenCarts(); // stock in open carts is not sold yet, so it is saved as on the shelf
+		try {
+			temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+			try (FileOutputStream file = new FileOutputStream(temp.toFile())) {
+				OutputStream out = new BufferedOutputStream(file, SAVE_BUFFER_SIZE);
+				if (format == BINARY_FORMAT) {
+					BinarySnapshot.write(out, members, products, shipments, transactions);
+				} else {
+					Writer saveState = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+					writeTextSnapshot(saveState);
+					saveState.flush();
+				}
+				out.flush();
+				file.getFD().sync();
+			}
+			moveAtomically(temp, target);
+			return true;
+		}
+		catch (IOException ioe){
+			events.error("The store could not be saved.", ioe);
+			if (temp != null) {
+				temp.toFile().delete();
 			}
+			return false;
+		} finally {
+			reserveOpenCarts();
+			checkpointLock.writeLock().unlock();
+		}
+	}
 
-			for(Product product : products.getProductList())
-			{
-				saveState.write("Product|");
-				// Product Attributes: productName, productID, restockAmount, price, currentStock
-				saveState.write(product.getProductName() + "|" + Integer.toString(product.getProductID()) +
-						"|" + Integer.toString(product.getRestockAmount()) + "|" + Double.toString(product.getPrice()) + "|" +
-						Integer.toString(product.getCurrentStock()) + "\n");
+	/**
+	 * Renames a file over another one in a single step, so readers of the target see either
+	 * the old file or the new one. Falls back to a plain replace on file systems that cannot
+	 * rename atomically.
+	 * 
+	 * @param source file to rename
+	 * @param target name to give it, replaced if it exists
+	 * @throws IOException if the file cannot be renamed
+	 */
+	static void moveAtomically(Path source, Path target) throws IOException {
+		try {
+			Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	// Writes the store in the pipe delimited text format, one record per line. Each line is
+	// built in one StringBuilder and written with a single call.
+	private void writeTextSnapshot(Writer saveState) throws IOException {
+		StringBuilder line = new StringBuilder(256);
+		for(Member member : members.getMemberList())
+		{
+			// Member Attributes: Name (First Last), MemberID (3 digit int), Address, Phone, Enrollment Date
+			line.append("Member|").append(member.getMemberName()).append('|').append(member.getMemberID())
+					.append('|').append(member.getAddress()).append('|').append(member.getPhoneNumber()).append('|')
+					.append(member.getEnrollmentDate()).append('\n');
+			saveState.append(line);
+			line.setLength(0);
+		}
+
+		for(Product product : products.getProductList())
+		{
+			// Product Attributes: productName, productID, restockAmount, price, currentStock
+			line.append("Product|").append(product.getProductName()).append('|').append(product.getProductID())
+					.append('|').append(product.getRestockAmount()).append('|');
+			Money.append(line, product.getPriceCents()).append('|')
+					.append(product.getCurrentStock()).append('\n');
+			saveState.append(line);
+			line.setLength(0);
+		}
+
+		for(ProductOrder order : shipments.getOrders())
+		{
+			// Shipment Attributes: productName, productID, quantity on order
+			line.append("Shipment|").append(order.getProduct().getProductName()).append('|').append(order.getProductID())
+					.append('|').append(order.getQuantity()).append('\n');
+			saveState.append(line);
+			line.setLength(0);
+		}
+
+		for(int i = 0; i < transactions.size(); i++)
+		{
+			Transaction transaction = transactions.get(i);
+			line.append("Transaction|");
+			// Transactions Attributes: memberID,{List of LineItems}, Total Products, date
+			for(LineItem lineItem : transaction.lineItemList){
+				Product product = lineItem.getProduct();
+				line.append(transaction.memberID).append('|')
+						.append(product.getProductName()).append('|')
+						.append(product.getProductID()).append('|')
+						.append(product.getRestockAmount()).append('|');
+				Money.append(line, product.getPriceCents()).append('|')
+						.append(product.getCurrentStock()).append('|')
+						.append(lineItem.getQuantity()).append('|');
+				Money.append(line, lineItem.getPriceCents()).append('|')
+						.append(transaction.totalProducts).append('|');
+				Money.append(line, transaction.getTotalCents()).append('*');
 			}
+			line.append('\n');
+			saveState.append(line);
+			line.setLength(0);
+		}
+	}
 
-			for(Product shipment : shipments.getProductsOnOrder())
-			{
-				saveState.write("Shipment|");
-				// Shipment Attributes: productName, productID, price, currentStock
-				saveState.write(shipment.getProductName() + "|" + Integer.toString(shipment.getProductID()) +
-						"|" + Double.toString(shipment.getPrice()) + Integer.toString(shipment.getCurrentStock()) +
-						"\n");
+	/**
+	 * Empties the store of all members, products, orders, transactions and open carts.
+	 */
+	void clear() {
+		members = new MemberList();
+		products = new ProductList();
+		transactions = newTransactionList();
+		shipments = new ShipmentList();
+		sales = new SalesRollup(ZoneId.systemDefault());
+		sessions.clear();
+	}
+
+	// Adds Transactions that did not go through a checkout, such as generated ones, see
+	// DataGenerator. Like a load, they are not journaled one by one: a journaled store
+	// writes a checkpoint afterwards instead.
+	void addTransactions(List<Transaction> added) {
+		checkpointLock.readLock().lock();
+		try {
+			transactions.addTransactions(added);
+			sales.addTransactions(added);
+		} finally {
+			checkpointLock.readLock().unlock();
+		}
+		if (journal != null) {
+			checkpoint();
+		}
+	}
+
+	/**
+	 * Chooses how transactions are stored. Columnar storage keeps line items in primitive
+	 * arrays, see ColumnarTransactionList, and uses a fraction of the memory for stores with
+	 * millions of transactions. Transactions already in the store are moved over.
+	 * 
+	 * @param columnar true for ColumnarTransactionList, false for TransactionList
+	 */
+	public void setColumnarTransactions(boolean columnar) {
+		checkpointLock.writeLock().lock();
+		try {
+			if (columnar == columnarTransactions) {
+				return;
+			}
+			columnarTransactions = columnar;
+			ArrayList<Transaction> stored = new ArrayList<>(transactions.size());
+			for (int i = 0; i < transactions.size(); i++) {
+				stored.add(transactions.get(i));
 			}
+			TransactionList moved = newTransactionList();
+			moved.addTransactions(stored);
+			transactions = moved;
+		} finally {
+			checkpointLock.writeLock().unlock();
+		}
+	}
 
-			for(Transaction transaction : transactions.getAllTransactions())
-			{
-				saveState.write("Transaction|");
-				// Transactions Attributes: memberID,{List of LineItems}, Total Products, date
-				for(LineItem lineItem : transaction.lineItemList){
-					saveState.write(Integer.toString(transaction.memberID) + "|" +
-							lineItem.getProduct().getProductName() + "|" +
-							Integer.toString(lineItem.getProduct().getProductID()) + "|" +
-							Integer.toString(lineItem.getProduct().getRestockAmount()) + "|" +
-							Double.toString(lineItem.getProduct().getPrice()) + "|" +
-							Integer.toString(lineItem.getProduct().getCurrentStock()) + "|" +
-							Integer.toString((int)lineItem.getQuantity()) + "|" +
-							Double.toString(lineItem.getPrice()) + "|" +
-							transaction.totalProducts + "|" +
-							transaction.getTotal() + "*");
-				}
-				saveState.write("\n");
+	private TransactionList newTransactionList() {
+		return columnarTransactions ? new ColumnarTransactionList() : new TransactionList();
+	}
+
+	/**
+	 * Loads a saved store from a file, see open(File).
+	 * 
+	 * @param path file to load
+	 * @return boolean success indicator
+	 */
+	public boolean open(Path path) {
+		return open(path.toFile());
+	}
+
+	/**
+	 * Loads a saved store from a file, adding its contents to this store.
+	 * Binary snapshots are recognized by their header, anything else is read as text.
+	 * 
+	 * When the store is journaled, a checkpoint is written after loading.
+	 * Large text saves are read in parallel, one thread per processor, see open(File, int).
+	 * 
+	 * @param file file to load
+	 * @return boolean success indicator
+	 */
+	public boolean open(File file) {
+		return open(file, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Loads a saved store from a file, see open(File). A text save is split into chunks at
+	 * line boundaries and the chunks are parsed at the same time on a fork-join pool.
+	 * The parsed records are then added to the store in dependency order: members,
+	 * products, the shipments that refer to products, and last the transactions.
+	 * 
+	 * @param file    file to load
+	 * @param threads number of threads parsing a text save, 1 parses it on the calling thread
+	 * @return boolean success indicator
+	 */
+	public boolean open(File file, int threads) {
+		long start = metrics.start();
+		boolean loaded = false;
+		try {
+			loaded = load(file, threads);
+			if (loaded && journal != null) {
+				checkpoint(); // the loaded contents are not in the journal
 			}
-			saveState.close();
+			return loaded;
+		} finally {
+			metrics.record(StoreMetrics.OPEN, start, loaded);
 		}
-		catch (IOException ioe){
-			System.out.println(ioe.getMessage());
-			ioe.printStackTrace();
+	}
+
+	/**
+	 * @return the store's operation metrics, see StoreMetrics. Off unless turned on.
+	 */
+	public StoreMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Chooses where the store shows carts after each scan, processed shipments, price
+	 * changes, notices and errors, see StoreEventSink. The store starts with a
+	 * ConsoleEventSink. Reports asked for by the user, such as listAllProducts, always
+	 * print to the console.
+	 * 
+	 * @param sink the sink to emit events to
+	 */
+	public void setEventSink(StoreEventSink sink) {
+		events = Objects.requireNonNull(sink);
+	}
+
+	public StoreEventSink getEventSink() {
+		return events;
+	}
+
+	private boolean load(File file, int threads) {
+		if (BinarySnapshot.isBinarySnapshot(file)) {
+			checkpointLock.readLock().lock();
+			try (InputStream in = new BufferedInputStream(new FileInputStream(file), 1 << 16)) {
+				int loadedFrom = transactions.size();
+				BinarySnapshot.read(in, members, products, shipments, transactions);
+				sales.addTransactions(transactions, loadedFrom);
+				return true;
+			} catch (IOException e) {
+				events.error("A file error has occurred.", e);
+				return false;
+			} finally {
+				checkpointLock.readLock().unlock();
+			}
+		}
+
+		ArrayList<LoadedRecords> chunks = new ArrayList<>();
+		try {
+			long[] bounds = chunkBounds(file, threads);
+			if (bounds.length == 2) {
+				for (int i = 0; i + 1 < bounds.length; i++) {
+					chunks.add(parseChunk(file, bounds[i], bounds[i + 1]));
+				}
+			} else {
+				ArrayList<Callable<LoadedRecords>> tasks = new ArrayList<>();
+				for (int i = 0; i + 1 < bounds.length; i++) {
+					long start = bounds[i];
+					long end = bounds[i + 1];
+					tasks.add(() -> parseChunk(file, start, end));
+				}
+				ForkJoinPool pool = new ForkJoinPool(threads);
+				try {
+					for (Future<LoadedRecords> chunk : pool.invokeAll(tasks)) {
+						chunks.add(chunk.get());
+					}
+				} finally {
+					pool.shutdown();
+				}
+			}
+		} catch(IOException e){
+			events.error("A file error has occurred.", e);
+			return false;
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				events.error("A file error has occurred.", e.getCause());
+				return false;
+			}
+			throw new RuntimeException(e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
 			return false;
 		}
-		// Now need to write MemberList, ProductList, TransactionList, ShipmentList to file
+
+		for (LoadedRecords chunk : chunks) {
+			if (chunk.unknownRecord != null) {
+				events.notice("Unknown Text State Parameter \"" + chunk.unknownRecord + "\"");
+				return false;
+			}
+		}
+		checkpointLock.readLock().lock();
+		try {
+			mergeChunks(chunks);
+		} finally {
+			checkpointLock.readLock().unlock();
+		}
 		return true;
 	}
 
-	public boolean open(File file) {
-		try {
-			Scanner stateText = new Scanner(file);
-			while (stateText.hasNextLine()) {
-				String line = stateText.nextLine();
-				StringTokenizer tokenizer = new StringTokenizer(line, "|*\n\r\f");
-				String token = tokenizer.nextToken();
-
-				if(token.equalsIgnoreCase("member")){
-					parseMemberFromFile(tokenizer);
-				} else if (token.equalsIgnoreCase("product")) {
-					parseProductFromFile(tokenizer);
-				} else if(token.equalsIgnoreCase("shipment")){
-					parseShipmentFromFile(tokenizer);
-				} else if(token.equalsIgnoreCase("transaction")){
-					parseTransactionFromFile(tokenizer);
+	// Splits a text save into chunks of whole lines, about one chunk per thread and never
+	// smaller than MIN_LOAD_CHUNK. Returns the chunk boundaries, starting at 0 and ending at the file length.
+	private static long[] chunkBounds(File file, int threads) throws IOException {
+		long length = file.length();
+		int chunkCount = (int) Math.max(1, Math.min(threads, length / MIN_LOAD_CHUNK));
+		long[] bounds = new long[chunkCount + 1];
+		int count = 1;
+		byte[] buffer = new byte[4096];
+		try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+			for (int i = 1; i < chunkCount; i++) {
+				long position = Math.max(length * i / chunkCount, bounds[count - 1]);
+				// move forward to the start of the next line
+				in.seek(position);
+				int read;
+				boolean found = false;
+				while (!found && (read = in.read(buffer)) > 0) {
+					for (int j = 0; j < read && !found; j++, position++) {
+						found = buffer[j] == '\n';
+					}
 				}
-				else{
-					System.out.println("Unknown Text State Parameter \"" + token + "\"");
-					return false;
+				if (position > bounds[count - 1] && position < length) {
+					bounds[count++] = position;
 				}
 			}
-			stateText.close();
-			} catch(FileNotFoundException e){
-				System.out.println("A file error has occurred.");
-				System.out.println(e.getMessage());
-				e.printStackTrace();
-				return false;
+		}
+		bounds[count++] = length;
+		return Arrays.copyOf(bounds, count);
+	}
+
+	// Parses the lines of one chunk of a text save, without touching the store.
+	private LoadedRecords parseChunk(File file, long start, long end) throws IOException {
+		LoadedRecords chunk = new LoadedRecords();
+		try (MappedRecordReader reader = new MappedRecordReader(file, start, end)) {
+			while (reader.nextRecord()) {
+				if (!reader.hasMoreFields()) {
+					continue; // blank line
+				}
+				switch (reader.nextKeyword(RECORD_TYPES)) {
+					case 0:
+						parseMemberFromFile(reader, chunk);
+						break;
+					case 1:
+						parseProductFromFile(reader, chunk);
+						break;
+					case 2:
+						parseShipmentFromFile(reader, chunk);
+						break;
+					case 3:
+						parseTransactionFromFile(reader, chunk);
+						break;
+					default:
+						chunk.unknownRecord = reader.lastField();
+						return chunk;
+				}
 			}
+		}
+		return chunk;
+	}
 
+	// Adds the parsed chunks to the store in file order. Shipments are added after every
+	// product, because they refer to products in the catalog.
+	private void mergeChunks(ArrayList<LoadedRecords> chunks) {
+		for (LoadedRecords chunk : chunks) {
+			for (Member member : chunk.members) {
+				members.addMember(member);
+			}
+		}
+		for (LoadedRecords chunk : chunks) {
+			for (Product product : chunk.products) {
+				products.addProduct(product);
+			}
+		}
+		for (LoadedRecords chunk : chunks) {
+			for (LoadedOrder order : chunk.orders) {
+				Product product = products.getProduct(order.productID);
+				if (product == null) {
+					events.notice("Shipment for unknown product \"" + order.productName + "\" skipped.");
+				} else {
+					shipments.addProductOrder(product, order.quantity);
+				}
+			}
+		}
+		ArrayList<Transaction> loaded = new ArrayList<>();
+		for (LoadedRecords chunk : chunks) {
+			loaded.addAll(chunk.transactions);
+		}
+		transactions.addTransactions(loaded);
+		sales.addTransactions(loaded);
+	}
 
-			return true;
+	// The records parsed from one chunk of a text save.
+	private static class LoadedRecords {
+		private final ArrayList<Member> members = new ArrayList<>();
+		private final ArrayList<Product> products = new ArrayList<>();
+		private final ArrayList<LoadedOrder> orders = new ArrayList<>();
+		private final ArrayList<Transaction> transactions = new ArrayList<>();
+		private String unknownRecord; // first record of an unknown type, if any
+	}
+
+	// A shipment line, linked to its catalog product once every product is loaded.
+	private static class LoadedOrder {
+		private final String productName;
+		private final int productID;
+		private final int quantity;
+
+		private LoadedOrder(String productName, int productID, int quantity) {
+			this.productName = productName;
+			this.productID = productID;
+			this.quantity = quantity;
 		}
+	}
 
-	private void parseShipmentFromFile(StringTokenizer tokens) {
-		// Product name, product id, price, current stock
+	private void parseShipmentFromFile(MappedRecordReader fields, LoadedRecords chunk) {
+		// Product name, product id, quantity on order
 		int argCounter = 1;
 		String name = null;
 		int id = -1;
-		int currentStock = -1;
-		double price = -1;
+		int quantity = -1;
 
-		while (tokens.hasMoreTokens()) {
-			if (argCounter > 4) {
-				System.out.println("Invalid file format: Too many Product/Shipment parameters.");
+		while (fields.hasMoreFields()) {
+			if (argCounter > 3) {
+				events.notice("Invalid file format: Too many Shipment parameters.");
 				break;
 			}
-			// Parameter Order: Name, ID, Address, phone
-			String param = tokens.nextToken();
-			//System.out.println(param);
-
+			// Parameter Order: Name, ID, Quantity
 			switch (argCounter) {
 				case 1:
-					name = param;
+					name = fields.nextString();
 					argCounter++;
 					break;
 				case 2:
-					id = Integer.parseInt(param);
+					id = fields.nextInt();
 					argCounter++;
 					break;
 				case 3:
-					price = Double.parseDouble(param);
-					argCounter++;
-					break;
-				case 4:
-					currentStock = Integer.parseInt(param);
+					quantity = fields.nextInt();
 					argCounter++;
 					break;
 			}
 		}
 
-		if(name == null || id == -1 || price == -1 || currentStock == -1){
-			System.out.println("Null pointer in parameters, check to see that file structure is correct: [..],Name,ID,Price,Current Stock");
+		if(name == null || id == -1 || quantity == -1){
+			events.notice("Null pointer in parameters, check to see that file structure is correct: [..],Name,ID,Quantity");
 		}
 		else{
-			Product product = new Product(name, id, 0, price, currentStock);
-			GroceryStore.instance().addProductToCatalog(product);
+			chunk.orders.add(new LoadedOrder(name, id, quantity));
 		}
 	}
 
-	private void parseTransactionFromFile(StringTokenizer tokens) {
+	private void parseTransactionFromFile(MappedRecordReader fields, LoadedRecords chunk) {
+		// Each line item of the transaction is written as:
 		// trans.MemberID, line.productName, line.ID, line.restockAmount, line.price, line.currentStock, line.quantity,
-		// line.total price
+		// line.total price, trans.totalProducts, trans.total price
+		int memberID = -1;
+		long totalPrice = -1;
+		int totalProducts = -1;
+		ArrayList<LineItem> lineItems = new ArrayList<>();
 
-		while (tokens.hasMoreTokens()) {
-			int memberID = -1;
+		while (fields.hasMoreFields()) {
 			String productName = null;
 			int productID = -1;
 			int restock = -1;
-			double productPrice = -1;
+			long productPrice = -1;
 			int currentStock = -1;
 			int quantity = -1;
-			double linePrice = -1;
-			double totalPrice = -1;
-			int totalProducts = -1;
+			long linePrice = -1;
 			int argCounter = 1;
 			LineItem line;
-			ArrayList<LineItem> lineItems = new ArrayList<>();
 			boolean readFlag = true;
 
-			while (readFlag && tokens.hasMoreTokens()) {
-				String param = tokens.nextToken();
-
-				if (argCounter > 10) {
-					System.out.println("Invalid file format: Too many Transaction parameters.");
-					break;
-				}
-				// Parameter Order: Name, ID, Address, phone
-
+			while (readFlag && fields.hasMoreFields()) {
 				switch (argCounter) {
 					case 1:
-						memberID = Integer.parseInt(param);
+						memberID = fields.nextInt();
 						argCounter++;
 						break;
 					case 2:
-						productName = param;
+						productName = fields.nextString();
 						argCounter++;
 						break;
 					case 3:
-						productID = Integer.parseInt(param);
+						productID = fields.nextInt();
 						argCounter++;
 						break;
 					case 4:
-						restock = Integer.parseInt(param);
+						restock = fields.nextInt();
 						argCounter++;
 						break;
 					case 5:
-						productPrice = Double.parseDouble(param);
+						productPrice = fields.nextCents();
 						argCounter++;
 						break;
 					case 6:
-						currentStock = Integer.parseInt(param);
+						currentStock = fields.nextInt();
 						argCounter++;
 						break;
 					case 7:
-						quantity = Integer.parseInt(param);
+						quantity = fields.nextInt();
 						argCounter++;
 						break;
 					case 8:
-						linePrice = Double.parseDouble(param);
+						linePrice = fields.nextCents();
 						argCounter++;
 						break;
 					case 9:
-						totalProducts = Integer.parseInt(param);
+						totalProducts = fields.nextInt();
 						argCounter++;
 						break;
 					case 10:
-						totalPrice = Double.parseDouble(param);
+						totalPrice = fields.nextCents();
 						argCounter++;
 						readFlag = false;
 						break;
@@ -604,73 +1686,72 @@ public class GroceryStore {
 			}
 
 			if (memberID == -1 || productName == null || productID == -1 || restock == -1 || productPrice == -1 || currentStock == -1 ||
-					quantity == -1 || totalPrice == -1) {
-				System.out.println("Null pointer in parameters, check to see that file structure is correct: [..],Name,ID,Restock,Price,Current Stock");
+					quantity == -1 || linePrice == -1 || totalPrice == -1) {
+				events.notice("Null pointer in parameters, check to see that file structure is correct: [..],Name,ID,Restock,Price,Current Stock");
 			} else {
-				Product product = new Product(productName, productID, restock, productPrice, currentStock);
-				line = new LineItem(product, quantity);
+				Product product = new Product(productName, productID, restock, 0, currentStock);
+				product.setPriceCents(productPrice);
+				line = LineItem.ofCents(product, quantity, linePrice);
 				lineItems.add(line);
 			}
-
-			Transaction transaction = new Transaction(memberID, lineItems, totalProducts, totalPrice);
-			GroceryStore.instance().transactions.addTransaction(transaction);
 		}
 
+		// all line items on the line belong to one transaction
+		Transaction transaction = Transaction.ofCents(memberID, lineItems, totalProducts, totalPrice, ZonedDateTime.now());
+		chunk.transactions.add(transaction);
 	}
 
-	private void parseProductFromFile(StringTokenizer tokens) {
+	private void parseProductFromFile(MappedRecordReader fields, LoadedRecords chunk) {
 		// Product name, product id, current stock, restock, price
 		int argCounter = 1;
 		String name = null;
 		int id = -1;
 		int currentStock = -1;
 		int restock = -1;
-		double price = -1;
+		long price = -1;
 
-		while (tokens.hasMoreTokens()) {
+		while (fields.hasMoreFields()) {
 			if (argCounter > 5) {
-				System.out.println("Invalid file format: Too many Product parameters.");
+				events.notice("Invalid file format: Too many Product parameters.");
 				break;
 			}
-			// Parameter Order: Name, ID, Address, phone
-			String param = tokens.nextToken();
-			//System.out.println(param);
-
+			// Parameter Order: Name, ID, Restock, Price, Current Stock
 			switch (argCounter) {
 				case 1:
-					name = param;
+					name = fields.nextString();
 					argCounter++;
 					break;
 				case 2:
-					id = Integer.parseInt(param);
+					id = fields.nextInt();
 					argCounter++;
 					break;
 				case 3:
-					restock = Integer.parseInt(param);
+					restock = fields.nextInt();
 					argCounter++;
 					break;
 				case 4:
-					price = Double.parseDouble(param);
+					price = fields.nextCents();
 					argCounter++;
 					break;
 				case 5:
-					currentStock = Integer.parseInt(param);
+					currentStock = fields.nextInt();
 					argCounter++;
 					break;
 			}
 		}
 
 		if(name == null || id == -1 || restock == -1 || price == -1 || currentStock == -1){
-			System.out.println("Null pointer in parameters, check to see that file structure is correct: [..],Name,ID,Restock,Price,Current Stock");
+			events.notice("Null pointer in parameters, check to see that file structure is correct: [..],Name,ID,Restock,Price,Current Stock");
 		}
 		else{
-			Product product = new Product(name, id, restock, price);
+			Product product = new Product(name, id, restock, 0);
+			product.setPriceCents(price);
 			product.setCurrentStock(currentStock);
-			GroceryStore.instance().addProductToCatalog(product);
+			chunk.products.add(product);
 		}
 	}
 
-	public void parseMemberFromFile(StringTokenizer tokens) {
+	private void parseMemberFromFile(MappedRecordReader fields, LoadedRecords chunk) {
 		int argCounter = 1;
 		String name = null;
 		int id = -1;
@@ -678,47 +1759,44 @@ public class GroceryStore {
 		String phone = null;
 		ZonedDateTime enrollmentDate = null;
 
-		while (tokens.hasMoreTokens()) {
+		while (fields.hasMoreFields()) {
 			if (argCounter > 5) {
-				System.out.println("Invalid file format: Too many Member parameters.");
+				events.notice("Invalid file format: Too many Member parameters.");
 				break;
 			}
-			// Parameter Order: Name, ID, Address, phone
-			String param = tokens.nextToken();
-			//System.out.println(param);
-
+			// Parameter Order: Name, ID, Address, phone, Enrollment Date
 			switch (argCounter) {
 				case 1:
-					name = param;
+					name = fields.nextString();
 					argCounter++;
 					break;
 				case 2:
-					id = Integer.parseInt(param);
+					id = fields.nextInt();
 					argCounter++;
 					break;
 				case 3:
-					address = param;
+					address = fields.nextString();
 					argCounter++;
 					break;
 				case 4:
-					phone = param;
+					phone = fields.nextString();
 					argCounter++;
 					break;
 				case 5:
-					enrollmentDate = ZonedDateTime.parse(param);
+					enrollmentDate = fields.nextDate();
 					argCounter++;
 					break;
 			}
 		}
 
 		if(name == null || id == -1 || address == null || phone == null){
-			System.out.println("Null pointer in parameters, check to see that file structure is correct: [..],Name,ID,Address,Phone");
+			events.notice("Null pointer in parameters, check to see that file structure is correct: [..],Name,ID,Address,Phone");
 		}
 		else{
 			Member member = new Member(name, address, phone);
 			member.setMemberID(id);
 			member.setEnrollmentDate(enrollmentDate);
-			GroceryStore.instance().addMember(member);
+			chunk.members.add(member);
 		}
 	}
 
@@ -751,7 +1829,7 @@ public class GroceryStore {
 			int firstNameIndex = random.nextInt(firstName.size());
 			int lastNameIndex = random.nextInt(firstName.size());
 			Member member = new Member(firstName.get(firstNameIndex) + " " + lastName.get(lastNameIndex), address.get(i), phoneNumber.get(i));
-			GroceryStore.instance().addMember(member);
+			addMember(member);
 		}
 
 		// Create Random Products
@@ -760,15 +1838,16 @@ public class GroceryStore {
 			int priceIndex = random.nextInt(productName.size());
 			int restockIndex = random.nextInt(restockAmount.size());
 			Product product = new Product(productName.get(i), productID.get(i), restockAmount.get(restockIndex), productPrices.get(priceIndex));
-			GroceryStore.instance().addProductToCatalog(product);
+			addProductToCatalog(product);
 		}
 
 		// Create 3 transactions per customer
+		ArrayList<Transaction> generated = new ArrayList<>();
 		for (int i = 0; i < members.getMemberList().size(); i++) {
 			// Member: Name (as first + last), Address, PhoneNumber, EnrollmentDate
 			ArrayList<LineItem> lineItems = new ArrayList<>();
 			int totalProducts = 0;
-			double totalPrice = 0;
+			long totalPrice = 0;
 
 			for(int j = 0; j < 3; j++)
 			{
@@ -782,11 +1861,13 @@ public class GroceryStore {
 			for(LineItem l : lineItems)
 			{
 				totalProducts += l.getQuantity();
-				totalPrice += l.getPrice();
+				totalPrice += l.getPriceCents();
 			}
-			Transaction transaction = new Transaction(members.get(i).getMemberID(), lineItems, totalProducts, totalPrice);
-			GroceryStore.instance().transactions.addTransaction(transaction);
+			Transaction transaction = Transaction.ofCents(members.get(i).getMemberID(), lineItems, totalProducts, totalPrice,
+					ZonedDateTime.now());
+			generated.add(transaction);
 		}
+		addTransactions(generated); // so they are in the sales totals and the journal too
 	}
 }
 
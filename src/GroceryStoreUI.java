@@ -2,12 +2,15 @@ import java.io.*;
 import java.lang.reflect.Array;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.time.YearMonth;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Scanner;
 import java.util.StringTokenizer;
 import java.util.Random;
+import java.util.function.BiFunction;
 
 /**
  * 
@@ -37,7 +40,13 @@ public class GroceryStoreUI {
 	private static final int LIST_OUTSTANDING_ORDERS = 12;
 	private static final int SAVE = 13;
 	private static final int RETRIEVE = 14;
-	private static final int HELP = 15;
+	private static final int SALES_REPORT = 15;
+	private static final int SHOW_METRICS = 16;
+	private static final int RECEIVE_MANIFEST = 17;
+	private static final int LOW_STOCK = 18;
+	private static final int HELP = 19;
+	private static final int LIST_PAGE_SIZE = 20; // listings show this many items before asking for more
+	private static final int SUGGESTIONS = 10; // products offered for a partly typed name
 	
 	/**
 	 * Constructor is private to maintain singleton pattern. Conditionally looks for any saved data.
@@ -315,11 +324,27 @@ public class GroceryStoreUI {
 	}
 
 	/**
-	 * Calls GroceryStore to prints information of all of the current members in MemberList
-	 * If there are no members in the system currently, the user is notified.
+	 * Calls GroceryStore to prints information of all of the current members in MemberList,
+	 * a page at a time. If there are no members in the system currently, the user is notified.
 	 */
 	public void listMembers() {
-		GroceryStore.instance().listAllMembers();
+		listPaged(GroceryStore.instance()::listMembers, "There are currently no members in the system.");
+	}
+
+	// Prints a listing a page at a time, asking before each page after the first.
+	private <T> void listPaged(BiFunction<Long, Integer, Page<T>> printPage, String empty) {
+		long cursor = Page.FIRST;
+		while (true) {
+			Page<T> page = printPage.apply(cursor, LIST_PAGE_SIZE);
+			if (cursor == Page.FIRST && page.getItems().isEmpty()) {
+				System.out.println(empty);
+				return;
+			}
+			if (!page.hasMore() || !yesOrNo("Show the next " + LIST_PAGE_SIZE + "?")) {
+				return;
+			}
+			cursor = page.getNextCursor();
+		}
 	}
 
 	/**
@@ -375,6 +400,10 @@ public class GroceryStoreUI {
 			String productName = getStringInput("Enter the product name, or -1 to cancel");
 			if (productName.equals("-1")) break; // exit on -1 to cancel
 			Product productResult = GroceryStore.instance().getProduct(productName);
+			if (productResult == null) {
+				// no exact match, so offer the products whose name starts like what was typed
+				productResult = chooseSuggestion(productName);
+			}
 			
 			if (productResult != null) {
 				// product was found, so print the details
@@ -394,12 +423,31 @@ public class GroceryStoreUI {
 		}
 	}
 	
+	// Lists the products matching a partly typed name and lets the user pick one.
+	// Returns null if nothing matches or the user picks none of them.
+	private Product chooseSuggestion(String partialName) {
+		List<Product> suggestions = GroceryStore.instance().searchProducts(partialName, SUGGESTIONS);
+		if (suggestions.isEmpty()) {
+			return null;
+		}
+		if (suggestions.size() == 1) {
+			return suggestions.get(0);
+		}
+		System.out.println("Did you mean:");
+		for (int i = 0; i < suggestions.size(); i++) {
+			Product suggestion = suggestions.get(i);
+			System.out.println((i + 1) + ": " + suggestion.getProductName() + " (ID " + suggestion.getProductID() + ")");
+		}
+		int choice = getIntInput("Enter the number of the product, or 0 for none of these");
+		return choice >= 1 && choice <= suggestions.size() ? suggestions.get(choice - 1) : null;
+	}
+
 	/**
-	 * Lists info for all products in the ProductList catalog
+	 * Lists info for all products in the ProductList catalog, a page at a time
 	 * 
 	 */
 	public void listProducts() {
-		GroceryStore.instance().listAllProducts();
+		listPaged(GroceryStore.instance()::listProducts, "There are currently no products in the system.\n");
 	}
 
 	/**
@@ -417,7 +465,7 @@ public class GroceryStoreUI {
 		while (true) {
 			int memberID = getIntInput("Enter the member id (or enter -1 to cancel):");
 			if (memberID == -1)
-				break;
+				return;
 			boolean isMember = GroceryStore.instance().createCart(memberID);
 
 			if (!isMember) {
@@ -441,10 +489,12 @@ public class GroceryStoreUI {
 		}
 		double moneyInputted = 0;
 		while (true) {
-			if (GroceryStore.instance().getCart().getInCart().isEmpty())
+			Cart cart = GroceryStore.instance().getCart();
+			if (cart == null || cart.getInCart().isEmpty())
 				break;
 			double money = getDoubleInput("Enter amount of money (or enter -1 to cancel transaction):");
 			if (money < 0) {
+				GroceryStore.instance().cancelCart(); // puts the reserved stock back
 				break;
 			}
 			moneyInputted += money;
@@ -558,17 +608,88 @@ public class GroceryStoreUI {
 	}
 
 	/**
-	 * Lists info for all products that are currently on order in the ShipmentList
+	 * Lists info for all products that are currently on order in the ShipmentList, a page at a time
 	 * 
 	 */
 	public void listOutstandingOrders() {
-		GroceryStore.instance().listOutstandingOrders();
+		listPaged(GroceryStore.instance()::listOrders, "There are currently no products on order.\n");
 	}
 
 	public void save(){
 		GroceryStore.instance().save();
 	}
 
+	/**
+	 * Prints the sales of a day or a month. Prompts until a valid day or month is entered.
+	 * 
+	 */
+	public void salesReport() {
+		while (true) {
+			String period = getStringInput("Enter a day (yyyy-mm-dd) or a month (yyyy-mm) :").trim();
+			try {
+				if (period.length() <= 7) {
+					GroceryStore.instance().printMonthlySales(YearMonth.parse(period));
+				} else {
+					GroceryStore.instance().printDailySales(LocalDate.parse(period));
+				}
+				return;
+			} catch (Exception e) {
+				System.out.println("Incorrect Date Values. Try Again.");
+			}
+		}
+	}
+
+	/**
+	 * Prints call counts and latency percentiles of the store operations. Offers to turn
+	 * the metrics on when they are off, and to reset them when they are on.
+	 * 
+	 */
+	public void showMetrics() {
+		StoreMetrics metrics = GroceryStore.instance().getMetrics();
+		if (!metrics.isEnabled()) {
+			if (yesOrNo("Metrics are off. Turn them on?")) {
+				metrics.reset();
+				metrics.setEnabled(true);
+			}
+			return;
+		}
+		metrics.print();
+		if (yesOrNo("Reset the metrics?")) {
+			metrics.reset();
+		}
+	}
+
+	/**
+	 * Receives a whole delivery from a manifest file and prints what was received, short,
+	 * over or unexpected. Prompts until a readable file is entered or -1 to cancel.
+	 * 
+	 */
+	public void receiveManifest() {
+		while (true) {
+			String fileName = getStringInput("Enter the manifest file, one \"productID|quantity\" per line (or -1 to cancel)");
+			if (fileName.equals("-1")) break;
+			File manifest = new File(fileName);
+			if (!manifest.isFile()) {
+				System.out.println("File does not exist. Please try again.");
+				continue;
+			}
+			ShipmentReceipt receipt = GroceryStore.instance().processManifest(manifest.toPath());
+			if (receipt != null) {
+				receipt.print();
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Lists the products that need restocking, the furthest below their restock amount first.
+	 * 
+	 */
+	public void listLowStock() {
+		int count = getIntInput("How many products would you like to see?");
+		GroceryStore.instance().listLowStock(count);
+	}
+
 	public void createTestEnvironment(){
 		System.out.println("Creating test environment...");
 		GroceryStore.instance().createTestEnvironment();
@@ -579,7 +700,7 @@ public class GroceryStoreUI {
 	 * 
 	 */
 	public void help() {
-		System.out.println("Enter a number between 0 and 15 as explained below:");
+		System.out.println("Enter a number between 0 and " + HELP + " as explained below:");
 		System.out.println(EXIT + ": to Exit\n");
 		System.out.println(ENROLL_MEMBER + ": to enroll a member");
 		System.out.println(REMOVE_MEMBER + ": to remove a member");
@@ -595,6 +716,10 @@ public class GroceryStoreUI {
 		System.out.println(LIST_OUTSTANDING_ORDERS + ": to list outstanding orders");
 		System.out.println(SAVE + ": to save data");
 		System.out.println(RETRIEVE + ": to retrieve saved data");
+		System.out.println(SALES_REPORT + ": to print a daily or monthly sales report");
+		System.out.println(SHOW_METRICS + ": to show operation timings");
+		System.out.println(RECEIVE_MANIFEST + ": to receive a shipment manifest");
+		System.out.println(LOW_STOCK + ": to list the products that most need restocking");
 	}
 
 	/**
@@ -649,6 +774,18 @@ public class GroceryStoreUI {
 			case RETRIEVE:
 				retrieve(); // retrieve not working from the menu
 				break;
+			case SALES_REPORT:
+				salesReport();
+				break;
+			case SHOW_METRICS:
+				showMetrics();
+				break;
+			case RECEIVE_MANIFEST:
+				receiveManifest();
+				break;
+			case LOW_STOCK:
+				listLowStock();
+				break;
 			case HELP:
 				help();
 				break;
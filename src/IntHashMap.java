@@ -0,0 +1,204 @@
+import java.util.ArrayList;
+
+// Hash map keyed on primitive int values. Used by the collection classes to index
+// their objects by ID without boxing every key into an Integer.
+
+public class IntHashMap<V> {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private int[] keys;
+    private Object[] values; // a null value marks an empty slot
+    private int size;
+    private int resizeAt;
+
+    /**
+     * Constructor
+     *
+     */
+    public IntHashMap() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param int expectedSize - the number of entries the map should hold before it needs to grow.
+     */
+    public IntHashMap(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 3 / 4 < expectedSize) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Get method to get the value stored under a key
+     * @param int key - the key we are looking to find
+     * @return V if found, null if not found.
+     *
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        Object value;
+        while ((value = values[slot]) != null) {
+            if (keys[slot] == key) {
+                return (V) value;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Stores a value under a key, replacing any value already stored there.
+     * @param int key - the key to store the value under.
+     * @param V value - the value to store, must not be null.
+     * @return V the value previously stored under the key, null if there was none.
+     *
+     */
+    public V put(int key, V value) {
+        return insert(key, value, true);
+    }
+
+    /**
+     * Stores a value under a key only if the key is not already in use.
+     * @param int key - the key to store the value under.
+     * @param V value - the value to store, must not be null.
+     * @return V the value already stored under the key, null if the new value was stored.
+     *
+     */
+    public V putIfAbsent(int key, V value) {
+        return insert(key, value, false);
+    }
+
+    /**
+     * Removes the value stored under a key.
+     * @param int key - the key to remove.
+     * @return V the value that was removed, null if the key was not found.
+     *
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        Object value;
+        while ((value = values[slot]) != null) {
+            if (keys[slot] == key) {
+                deleteSlot(slot);
+                size--;
+                return (V) value;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    public void clear() {
+        allocate(MIN_CAPACITY);
+        size = 0;
+    }
+
+    /**
+     * Copies every value in the map into a new list. The order of the values is unspecified.
+     * @return ArrayList of values
+     *
+     */
+    @SuppressWarnings("unchecked")
+    public ArrayList<V> values() {
+        ArrayList<V> list = new ArrayList<>(size);
+        for (Object value : values) {
+            if (value != null) {
+                list.add((V) value);
+            }
+        }
+        return list;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V insert(int key, V value, boolean replace) {
+        if (value == null) {
+            throw new IllegalArgumentException("IntHashMap does not store null values");
+        }
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        Object existing;
+        while ((existing = values[slot]) != null) {
+            if (keys[slot] == key) {
+                if (replace) {
+                    values[slot] = value;
+                }
+                return (V) existing;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > resizeAt) {
+            rehash(keys.length << 1);
+        }
+        return null;
+    }
+
+    // Backward shift deletion, so lookups never need tombstones to keep probing.
+    private void deleteSlot(int slot) {
+        int mask = keys.length - 1;
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (values[next] != null) {
+            int home = hash(keys[next]) & mask;
+            // move the entry back into the gap if its home slot is not between the gap and its current slot
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        values[gap] = null;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (values[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        resizeAt = capacity * 3 / 4;
+    }
+
+    // IDs are often sequential, so spread the bits before masking.
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -2,7 +2,7 @@
 public class LineItem {
     private Product product;
     private int quantiity;
-    private double price;
+    private long priceCents; // see Money
 
     /**
      * Constructor
@@ -13,7 +13,38 @@ public class LineItem {
     public LineItem(Product product, int quantiity) {
         this.product = product;
         this.quantiity = quantiity;
-        price = product.getPrice() * quantiity;
+        priceCents = product.getPriceCents() * quantiity;
+    }
+
+    /**
+     * Constructor for a LineItem whose price was already settled, such as one
+     * loaded from a saved Transaction.
+     * 
+     * @param product   product in LineItem
+     * @param quantiity quantity of said product
+     * @param price     total price of the LineItem, rounded to the nearest cent
+     */
+    public LineItem(Product product, int quantiity, double price) {
+        this(Money.toCents(price), product, quantiity);
+    }
+
+    /**
+     * Makes a LineItem whose price was already settled, in cents. A factory rather
+     * than a constructor, so a price in cents is never mistaken for one in dollars.
+     * 
+     * @param product    product in LineItem
+     * @param quantiity  quantity of said product
+     * @param priceCents total price of the LineItem in cents
+     * @return the LineItem
+     */
+    public static LineItem ofCents(Product product, int quantiity, long priceCents) {
+        return new LineItem(priceCents, product, quantiity);
+    }
+
+    private LineItem(long priceCents, Product product, int quantiity) {
+        this.product = product;
+        this.quantiity = quantiity;
+        this.priceCents = priceCents;
     }
     /**
      * Getter Product
@@ -31,7 +62,7 @@ public class LineItem {
      */
     public void setQuantity(int quantiity) {
         this.quantiity = quantiity;
-        price = product.getPrice() * quantiity;
+        priceCents = product.getPriceCents() * quantiity;
     }
 
     /**
@@ -49,16 +80,35 @@ public class LineItem {
      * @return
      */
     public double getPrice() {
-        return price;
+        return Money.toDollars(priceCents);
+    }
+
+    /**
+     * Getter Price in cents
+     * 
+     * @return total price of the LineItem in cents
+     */
+    public long getPriceCents() {
+        return priceCents;
     }
 
     /**
      * Print LineItem
      */
     public void print() {
+        System.out.print(format(new StringBuilder(80)));
+    }
+
+    /**
+     * Appends the LineItem as print shows it.
+     * 
+     * @param to where to append the LineItem
+     * @return to
+     */
+    public StringBuilder format(StringBuilder to) {
         String qtyString = "qty: " + quantiity;
-        String pString = "Price: " + String.format("%.2f", price);
-        System.out.printf("%-40s %-10s %s %n", product.getProductName(), qtyString, pString);
+        String pString = "Price: " + Money.format(priceCents);
+        return to.append(String.format("%-40s %-10s %s %n", product.getProductName(), qtyString, pString));
     }
 
 }
@@ -0,0 +1,228 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * LowStockTracker keeps the products of a catalog that need restocking in a heap ordered
+ * by urgency, how far the current stock is below the restock amount. A product needs
+ * restocking once its stock falls to its restock amount or below.
+ *
+ * The ProductList owning the tracker calls update whenever a product's stock or restock
+ * amount changes. Products with enough stock are not in the heap, and an update for one
+ * of them costs two reads, so the lock free checkout path stays lock free until a product
+ * runs low. Each product remembers its position in the heap, so an update moves it in
+ * O(log n), and topUrgent(k) walks only the top of the heap in O(k log k).
+ */
+
+public class LowStockTracker {
+
+	private Product[] heap = new Product[16];
+	private int[] shortfall = new int[16]; // restock amount - stock when the product was last placed
+	private int size = 0;
+
+	/**
+	 * The one restock rule of the store.
+	 *
+	 * @param Product product - the product to check
+	 * @return boolean true if the product's stock is at or below its restock amount
+	 */
+	public static boolean needsRestock(Product product) {
+		return product.getCurrentStock() <= product.getRestockAmount();
+	}
+
+	/**
+	 * Adds, moves or removes a product after its stock or restock amount changed.
+	 *
+	 * @param Product product - the changed product
+	 */
+	public void update(Product product) {
+		if (product.getLowStockPosition() < 0 && !needsRestock(product)) {
+			return; // not tracked and not low
+		}
+		synchronized (this) {
+			// the stock may change again while the heap is updated, so place the product
+			// until the stock it was placed with is still its stock
+			while (true) {
+				int stock = product.getCurrentStock();
+				place(product, stock);
+				if (product.getCurrentStock() == stock) {
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Stops tracking a product, for a product leaving the catalog.
+	 *
+	 * @param Product product - the product to remove
+	 */
+	public synchronized void remove(Product product) {
+		int position = product.getLowStockPosition();
+		if (position >= 0 && position < size && heap[position] == product) {
+			removeAt(position);
+		}
+	}
+
+	/**
+	 * @return int number of products that need restocking
+	 */
+	public synchronized int size() {
+		return size;
+	}
+
+	/**
+	 * @param int k - the number of products wanted
+	 * @return List<Product> up to k products that need restocking, the furthest below
+	 *         their restock amount first
+	 */
+	public synchronized List<Product> topUrgent(int k) {
+		int wanted = Math.min(Math.max(k, 0), size);
+		ArrayList<Product> urgent = new ArrayList<>(wanted);
+		if (wanted == 0) {
+			return urgent;
+		}
+		// best first walk of the heap: the next most urgent product is always a child of one already taken
+		int[] frontier = new int[wanted + 1];
+		int frontierSize = 0;
+		frontier[frontierSize++] = 0;
+		while (urgent.size() < wanted) {
+			int position = frontier[0];
+			frontier[0] = frontier[--frontierSize];
+			siftDownFrontier(frontier, frontierSize, 0);
+			urgent.add(heap[position]);
+			for (int child = 2 * position + 1; child <= 2 * position + 2 && child < size; child++) {
+				frontier[frontierSize] = child;
+				siftUpFrontier(frontier, frontierSize++);
+			}
+		}
+		return urgent;
+	}
+
+	/**
+	 * @return List<Product> every product that needs restocking, the most urgent first
+	 */
+	public synchronized List<Product> getAll() {
+		return topUrgent(size);
+	}
+
+	// Caller holds the lock.
+	private void place(Product product, int stock) {
+		int position = product.getLowStockPosition();
+		if (stock > product.getRestockAmount()) {
+			if (position >= 0) {
+				removeAt(position);
+			}
+			return;
+		}
+		int key = product.getRestockAmount() - stock;
+		if (position < 0) {
+			if (size == heap.length) {
+				heap = Arrays.copyOf(heap, size * 2);
+				shortfall = Arrays.copyOf(shortfall, size * 2);
+			}
+			position = size++;
+			heap[position] = product;
+			shortfall[position] = key;
+			product.setLowStockPosition(position);
+			siftUp(position);
+		} else {
+			int old = shortfall[position];
+			shortfall[position] = key;
+			if (key > old) {
+				siftUp(position);
+			} else if (key < old) {
+				siftDown(position);
+			}
+		}
+	}
+
+	private void removeAt(int position) {
+		Product removed = heap[position];
+		removed.setLowStockPosition(-1);
+		size--;
+		if (position != size) {
+			// move the last product into the hole, then restore the order either way
+			set(position, heap[size], shortfall[size]);
+			siftDown(position);
+			siftUp(position);
+		}
+		heap[size] = null;
+	}
+
+	private void siftUp(int position) {
+		Product product = heap[position];
+		int key = shortfall[position];
+		while (position > 0) {
+			int parent = (position - 1) / 2;
+			if (shortfall[parent] >= key) {
+				break;
+			}
+			set(position, heap[parent], shortfall[parent]);
+			position = parent;
+		}
+		set(position, product, key);
+	}
+
+	private void siftDown(int position) {
+		Product product = heap[position];
+		int key = shortfall[position];
+		while (true) {
+			int child = 2 * position + 1;
+			if (child >= size) {
+				break;
+			}
+			if (child + 1 < size && shortfall[child + 1] > shortfall[child]) {
+				child++;
+			}
+			if (shortfall[child] <= key) {
+				break;
+			}
+			set(position, heap[child], shortfall[child]);
+			position = child;
+		}
+		set(position, product, key);
+	}
+
+	private void set(int position, Product product, int key) {
+		heap[position] = product;
+		shortfall[position] = key;
+		product.setLowStockPosition(position);
+	}
+
+	// The frontier of topUrgent is a small heap of heap positions, ordered by their shortfall.
+	private void siftUpFrontier(int[] frontier, int index) {
+		int position = frontier[index];
+		while (index > 0) {
+			int parent = (index - 1) / 2;
+			if (shortfall[frontier[parent]] >= shortfall[position]) {
+				break;
+			}
+			frontier[index] = frontier[parent];
+			index = parent;
+		}
+		frontier[index] = position;
+	}
+
+	private void siftDownFrontier(int[] frontier, int frontierSize, int index) {
+		if (frontierSize == 0) {
+			return;
+		}
+		int position = frontier[index];
+		while (true) {
+			int child = 2 * index + 1;
+			if (child >= frontierSize) {
+				break;
+			}
+			if (child + 1 < frontierSize && shortfall[frontier[child + 1]] > shortfall[frontier[child]]) {
+				child++;
+			}
+			if (shortfall[frontier[child]] <= shortfall[position]) {
+				break;
+			}
+			frontier[index] = frontier[child];
+			index = child;
+		}
+		frontier[index] = position;
+	}
+}
@@ -0,0 +1,299 @@
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.ZonedDateTime;
+
+/**
+ * MappedRecordReader reads the pipe delimited text save format straight out of a
+ * memory mapped file. Each line is a record and fields are separated by '|' or '*',
+ * the same delimiters GroceryStore.open has always used. Numbers and dates are parsed
+ * from the mapped bytes, so only fields read with nextString become String objects.
+ *
+ * Files larger than one mapping window are mapped a window at a time, always starting
+ * at the beginning of a line.
+ */
+
+public class MappedRecordReader implements Closeable {
+
+	private static final int MAX_WINDOW = 1 << 30;
+
+	private final FileChannel channel;
+	private final long end; // file offset where reading stops
+	private MappedByteBuffer window;
+	private long windowStart; // file offset of the first byte of the window
+	private int lineEnd = -1; // current record ends at lineEnd of the window
+	private int fieldStart; // last field read is [fieldStart, fieldEnd) of the window
+	private int fieldEnd;
+	private byte[] scratch = new byte[256];
+	private final FieldText fieldText = new FieldText();
+
+	/**
+	 * Constructor, reads the whole file
+	 *
+	 * @param File file - the file to read
+	 * @throws IOException if the file cannot be opened or mapped
+	 */
+	public MappedRecordReader(File file) throws IOException {
+		this(file, 0, file.length());
+	}
+
+	/**
+	 * Constructor, reads the lines in part of a file
+	 *
+	 * @param File file - the file to read
+	 * @param long start - file offset of the first line to read, must be the start of a line
+	 * @param long end - file offset to stop at, must be the start of a line or the end of the file
+	 * @throws IOException if the file cannot be opened or mapped
+	 */
+	public MappedRecordReader(File file, long start, long end) throws IOException {
+		this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		this.end = Math.min(end, channel.size());
+		map(start);
+	}
+
+	/**
+	 * Moves to the next line of the file.
+	 *
+	 * @return boolean true if there is another line, false at the end of the file
+	 * @throws IOException if the file cannot be mapped or a line is too long to map
+	 */
+	public boolean nextRecord() throws IOException {
+		int start = lineEnd + 1;
+		if (windowStart + start >= end) {
+			return false;
+		}
+		int newline = findNewline(start);
+		if (newline < 0) {
+			if (windowStart + window.limit() < end) {
+				// the line runs past this window, so map a new window starting at the line
+				map(windowStart + start);
+				start = 0;
+				newline = findNewline(0);
+			}
+			if (newline < 0) {
+				if (windowStart + window.limit() < end) {
+					throw new IOException("Line is too long to read at offset " + (windowStart + start) + ".");
+				}
+				newline = window.limit(); // last line has no newline
+			}
+		}
+		lineEnd = newline;
+		fieldEnd = start;
+		return true;
+	}
+
+	/**
+	 * @return boolean true if the current line has another field
+	 */
+	public boolean hasMoreFields() {
+		while (fieldEnd < lineEnd && isDelimiter(window.get(fieldEnd))) {
+			fieldEnd++;
+		}
+		return fieldEnd < lineEnd;
+	}
+
+	/**
+	 * Reads the next field and matches it against a list of keywords * case insensitive *
+	 *
+	 * @param String[] keywords - the keywords to match
+	 * @return int index of the matching keyword, -1 if none match
+	 */
+	public int nextKeyword(String[] keywords) {
+		nextField();
+		for (int i = 0; i < keywords.length; i++) {
+			String keyword = keywords[i];
+			if (keyword.length() != fieldEnd - fieldStart) {
+				continue;
+			}
+			int k = 0;
+			while (k < keyword.length()
+					&& Character.toLowerCase((char) window.get(fieldStart + k)) == Character.toLowerCase(keyword.charAt(k))) {
+				k++;
+			}
+			if (k == keyword.length()) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @return String the next field of the current line
+	 */
+	public String nextString() {
+		nextField();
+		return lastField();
+	}
+
+	/**
+	 * @return String the field that was read last, as a String
+	 */
+	public String lastField() {
+		int length = fieldEnd - fieldStart;
+		if (scratch.length < length) {
+			scratch = new byte[Math.max(length, scratch.length * 2)];
+		}
+		window.get(fieldStart, scratch, 0, length);
+		return new String(scratch, 0, length, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * @return int the next field of the current line, parsed as an int
+	 * @throws NumberFormatException if the field is not an int
+	 */
+	public int nextInt() {
+		nextField();
+		long value = parseLong();
+		if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+			throw new NumberFormatException("For input string: \"" + lastField() + "\"");
+		}
+		return (int) value;
+	}
+
+	/**
+	 * Reads an amount of money, see Money. Amounts with more than two decimals, such as
+	 * the doubles written by older saves, are rounded to the nearest cent.
+	 *
+	 * @return long the next field of the current line, parsed as dollars and returned in cents
+	 * @throws NumberFormatException if the field is not a number
+	 */
+	public long nextCents() {
+		nextField();
+		int i = fieldStart;
+		boolean negative = false;
+		if (i < fieldEnd && (window.get(i) == '-' || window.get(i) == '+')) {
+			negative = window.get(i) == '-';
+			i++;
+		}
+		long cents = 0;
+		int digits = 0;
+		int fractionDigits = -1;
+		for (; i < fieldEnd && fractionDigits < 2; i++) {
+			byte b = window.get(i);
+			if (b >= '0' && b <= '9') {
+				cents = cents * 10 + (b - '0');
+				digits++;
+				if (fractionDigits >= 0) {
+					fractionDigits++;
+				}
+			} else if (b == '.' && fractionDigits < 0) {
+				fractionDigits = 0;
+			} else {
+				break;
+			}
+		}
+		int scale = fractionDigits >= 2 ? 1 : fractionDigits == 1 ? 10 : 100; // to whole cents
+		if (i < fieldEnd || digits == 0 || digits > 18 || cents > Long.MAX_VALUE / scale) {
+			// exponents, extra decimals and amounts too large for a long of cents
+			return Money.toCents(Double.parseDouble(lastField()));
+		}
+		cents *= scale;
+		return negative ? -cents : cents;
+	}
+
+	/**
+	 * @return ZonedDateTime the next field of the current line, null if the field is "null"
+	 */
+	public ZonedDateTime nextDate() {
+		nextField();
+		if (fieldEnd - fieldStart == 4 && fieldEquals("null")) {
+			return null;
+		}
+		return ZonedDateTime.parse(fieldText);
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	private void nextField() {
+		if (!hasMoreFields()) {
+			throw new IllegalStateException("No more fields on this line.");
+		}
+		fieldStart = fieldEnd;
+		while (fieldEnd < lineEnd && !isDelimiter(window.get(fieldEnd))) {
+			fieldEnd++;
+		}
+	}
+
+	private boolean fieldEquals(String keyword) {
+		for (int k = 0; k < keyword.length(); k++) {
+			if (window.get(fieldStart + k) != keyword.charAt(k)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private long parseLong() {
+		int i = fieldStart;
+		boolean negative = false;
+		if (i < fieldEnd && (window.get(i) == '-' || window.get(i) == '+')) {
+			negative = window.get(i) == '-';
+			i++;
+		}
+		if (i == fieldEnd || fieldEnd - i > 18) {
+			throw new NumberFormatException("For input string: \"" + lastField() + "\"");
+		}
+		long value = 0;
+		for (; i < fieldEnd; i++) {
+			byte b = window.get(i);
+			if (b < '0' || b > '9') {
+				throw new NumberFormatException("For input string: \"" + lastField() + "\"");
+			}
+			value = value * 10 + (b - '0');
+		}
+		return negative ? -value : value;
+	}
+
+	private int findNewline(int from) {
+		int limit = window.limit();
+		for (int i = from; i < limit; i++) {
+			if (window.get(i) == '\n') {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private void map(long start) throws IOException {
+		long size = Math.min(end - start, MAX_WINDOW);
+		window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.max(size, 0));
+		windowStart = start;
+		lineEnd = -1;
+	}
+
+	// the delimiters GroceryStore has always split records on
+	private static boolean isDelimiter(byte b) {
+		return b == '|' || b == '*' || b == '\r' || b == '\f';
+	}
+
+	// Read only view of the current field as characters, so it can be parsed without
+	// copying it into a String. Only used for ASCII fields such as dates.
+	private class FieldText implements CharSequence {
+		@Override
+		public int length() {
+			return fieldEnd - fieldStart;
+		}
+
+		@Override
+		public char charAt(int index) {
+			return (char) (window.get(fieldStart + index) & 0xFF);
+		}
+
+		@Override
+		public CharSequence subSequence(int start, int end) {
+			return toString().substring(start, end);
+		}
+
+		@Override
+		public String toString() {
+			return lastField();
+		}
+	}
+}
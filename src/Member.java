@@ -10,6 +10,8 @@ public class Member {
 	private String phoneNumber;
 	private double feePaid;
 	private ZonedDateTime enrollmentDate;
+	private MemberList memberList; // the member list this member is indexed in, if any
+	private long listSequence; // order in which the member was added to its list, see MemberList.getPage
 	
 	/**
      * Constructor
@@ -37,7 +39,11 @@ public class Member {
 
 
 	public void setMemberName(String memberName) {
+		String oldName = this.memberName;
 		this.memberName = memberName;
+		if (memberList != null) {
+			memberList.memberRenamed(this, oldName);
+		}
 	}
 
 
@@ -47,7 +53,11 @@ public class Member {
 
 
 	public void setMemberID(int memberID) {
+		int oldID = this.memberID;
 		this.memberID = memberID;
+		if (memberList != null && oldID != memberID) {
+			memberList.memberIDChanged(this, oldID);
+		}
 	}
 
 
@@ -81,6 +91,22 @@ public class Member {
 		this.enrollmentDate = enrollmentDate;
 	}
 
+
+	MemberList getMemberList() {
+		return memberList;
+	}
+
+	void setMemberList(MemberList memberList) {
+		this.memberList = memberList;
+	}
+
+	long getListSequence() {
+		return listSequence;
+	}
+
+	void setListSequence(long listSequence) {
+		this.listSequence = listSequence;
+	}
 	
 	
 	/**
@@ -88,15 +114,24 @@ public class Member {
      * 
      */
 	public void print() {
-		String output = "---------------- Member Info ---------------\n";
-		output += "Member ID: " + memberID + "\n";
-		output += "Name: " + memberName + "\n";
-		output += "Address: " + address + "\n";
-		output += "Phone Number: " + phoneNumber + "\n";
-		output += "Fee paid: " + feePaid + "\n";
-		output += "Enrollment Date: " + enrollmentDate.toString().substring(0, 10) + "\n"; // strip the date of just year / month / day
-		output += "---------------------------------------\n";
-		System.out.println(output);
+		System.out.println(format(new StringBuilder(256)));
+	}
+
+	/**
+	 * Appends the member details as print shows them, without the final blank line.
+	 * 
+	 * @param StringBuilder to - where to append the details
+	 * @return StringBuilder to
+	 */
+	public StringBuilder format(StringBuilder to) {
+		to.append("---------------- Member Info ---------------\n");
+		to.append("Member ID: ").append(memberID).append('\n');
+		to.append("Name: ").append(memberName).append('\n');
+		to.append("Address: ").append(address).append('\n');
+		to.append("Phone Number: ").append(phoneNumber).append('\n');
+		to.append("Fee paid: ").append(feePaid).append('\n');
+		to.append("Enrollment Date: ").append(enrollmentDate.toString(), 0, 10).append('\n'); // strip the date of just year / month / day
+		return to.append("---------------------------------------\n");
 	}
 	
 	
@@ -1,10 +1,17 @@
 import java.util.ArrayList;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
-// Collection class to hold Member objects
+// Collection class to hold Member objects. Lookups take the read lock so many
+// registers can look members up at once while members are enrolled or removed.
 
 public class MemberList {
 
 	private ArrayList<Member> memberList;
+	private IntHashMap<Member> membersByID; // memberID -> first member added with that ID
+	private NameIndex<Member> membersByName; // case insensitive member name -> members
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private long nextSequence = 1; // listing sequence of the next member added, see getPage
 	private static int totalMembers;
 	private static int memberIDCounter = 100; // used to auto generate and increment member ID's. Starts at 100.
 	
@@ -14,6 +21,8 @@ public class MemberList {
      */
 	public MemberList() {
 		this.memberList = new ArrayList<Member>();
+		this.membersByID = new IntHashMap<>();
+		this.membersByName = new NameIndex<>();
 		totalMembers = 0;
 	}
 	
@@ -35,12 +44,22 @@ public class MemberList {
      * 
      */
 	public boolean addMember(Member member) {
-		boolean success = this.memberList.add(member);
-		if (success) {
-			totalMembers++;
-			memberIDCounter++;
+		if (member == null) return false;
+		lock.writeLock().lock();
+		try {
+			boolean success = this.memberList.add(member);
+			if (success) {
+				totalMembers++;
+				memberIDCounter++;
+				member.setMemberList(this);
+				member.setListSequence(nextSequence++);
+				membersByID.putIfAbsent(member.getMemberID(), member);
+				membersByName.add(member.getMemberName(), member);
+			}
+			return success;
+		} finally {
+			lock.writeLock().unlock();
 		}
-		return success;
 	}
 	
 	
@@ -53,14 +72,24 @@ public class MemberList {
 	 */
 	public boolean removeMember(int memberID) {
 		boolean success = false;
-		// attempting to find the member with the matching memberID
-		Member matchingMember = getMember(memberID);
-		// if the member was not found we got a null object back
-		if (matchingMember == null) return false;
-		// member was found, so we attempt to remove them
-		success = memberList.remove(matchingMember);
-		if (success) totalMembers--;
-		return success;
+		lock.writeLock().lock();
+		try {
+			// attempting to find the member with the matching memberID
+			Member matchingMember = getMember(memberID);
+			// if the member was not found we got a null object back
+			if (matchingMember == null) return false;
+			// member was found, so we attempt to remove them
+			success = memberList.remove(matchingMember);
+			if (success) {
+				totalMembers--;
+				matchingMember.setMemberList(null);
+				membersByName.remove(matchingMember.getMemberName(), matchingMember);
+				unindexID(matchingMember, memberID);
+			}
+			return success;
+		} finally {
+			lock.writeLock().unlock();
+		}
 	}
 	
 	
@@ -75,13 +104,81 @@ public class MemberList {
      * @return null - if the member is not found, null is returned.
      */
 	public Member getMember(int memberID) {
-		for (Member member : memberList) {
-			if (member.getMemberID() == memberID) {
-				return member;
+		lock.readLock().lock();
+		try {
+			return membersByID.get(memberID);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * method to find every member with a matching name * case insensitive *
+	 * @param name - the name of the members we would like to get.
+	 * @return ArrayList - the matching members, empty if none were found.
+	 */
+	public ArrayList<Member> getMembersByName(String name) {
+		lock.readLock().lock();
+		try {
+			return new ArrayList<>(membersByName.get(name));
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * Gets one page of members, in the order they were added.
+	 * @param long cursor - Page.FIRST, or the next cursor of the previous page
+	 * @param int pageSize - the most members to return
+	 * @return Page of members after the cursor
+	 */
+	public Page<Member> getPage(long cursor, int pageSize) {
+		lock.readLock().lock();
+		try {
+			return Page.of(memberList, Member::getListSequence, cursor, pageSize);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * Called by a Member in this list when it is renamed, so the name index
+	 * can be moved to the new name.
+	 */
+	void memberRenamed(Member member, String oldName) {
+		lock.writeLock().lock();
+		try {
+			membersByName.rename(oldName, member.getMemberName(), member);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+	
+	/**
+	 * Called by a Member in this list when its ID changes, so the ID index
+	 * can be moved to the new key.
+	 */
+	void memberIDChanged(Member member, int oldID) {
+		lock.writeLock().lock();
+		try {
+			unindexID(member, oldID);
+			membersByID.putIfAbsent(member.getMemberID(), member);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+	
+	// Drops the ID index entry for a member, handing the key to the next member
+	// in the list with the same ID if there is one.
+	private void unindexID(Member member, int memberID) {
+		if (membersByID.get(memberID) != member) return;
+		membersByID.remove(memberID);
+		for (Member other : memberList) {
+			if (other.getMemberID() == memberID) {
+				membersByID.put(memberID, other);
+				break;
 			}
 		}
-		// member was not found
-		return null;
 	}
 	
 	/**
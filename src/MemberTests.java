@@ -40,4 +40,20 @@ public class MemberTests {
         // Should probably allow access to total members in groceryStore or access to the list so we can see .size() when
         // removing members
     }
+
+    @Test
+    public void testMemberNameLookup() {
+        MemberList memberList = new MemberList();
+        Member member = new Member("Ada Lovelace", "1 Analytical Way", "612-555-0100");
+        memberList.addMember(member);
+        assertEquals("Name lookup should ignore case.", 1, memberList.getMembersByName("ada lovelace").size());
+
+        member.setMemberName("Ada King");
+        assertTrue("Old name should no longer match.", memberList.getMembersByName("Ada Lovelace").isEmpty());
+        assertSame("New name should match.", member, memberList.getMembersByName("ADA KING").get(0));
+
+        memberList.removeMember(member.getMemberID());
+        assertTrue("Removed member should not match.", memberList.getMembersByName("Ada King").isEmpty());
+        assertNull("Removed member should not be found by ID.", memberList.getMember(member.getMemberID()));
+    }
 }
@@ -0,0 +1,72 @@
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Money holds the conversions for amounts of money kept as a long number of cents.
+ * Prices, line item prices, cart totals and transaction totals are all stored in cents,
+ * so adding them up is exact no matter how many are added. Doubles are only used at the
+ * edges, for amounts typed in by the user and for the existing double getters.
+ */
+
+public final class Money {
+
+	private static final long MAX_DOLLARS = Long.MAX_VALUE / 100;
+
+	private Money() {
+	}
+
+	/**
+	 * Converts an amount in dollars to cents, rounding half up to the nearest cent.
+	 * Amounts too large for a long are saturated.
+	 *
+	 * @param double dollars - the amount to convert
+	 * @return long the amount in cents
+	 */
+	public static long toCents(double dollars) {
+		if (dollars >= MAX_DOLLARS) {
+			return Long.MAX_VALUE;
+		}
+		if (dollars <= -MAX_DOLLARS) {
+			return Long.MIN_VALUE;
+		}
+		// BigDecimal.valueOf uses the shortest decimal form of the double, so 1.005 rounds to 1.01
+		return BigDecimal.valueOf(dollars).movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue();
+	}
+
+	/**
+	 * @param long cents - an amount in cents
+	 * @return double the amount in dollars
+	 */
+	public static double toDollars(long cents) {
+		return cents / 100.0;
+	}
+
+	/**
+	 * Formats an amount as dollars with two decimals and no currency sign, such as 12.05.
+	 *
+	 * @param long cents - the amount to format
+	 * @return String the formatted amount
+	 */
+	public static String format(long cents) {
+		return append(new StringBuilder(24), cents).toString();
+	}
+
+	/**
+	 * Appends an amount as dollars with two decimals, see format.
+	 *
+	 * @param StringBuilder to - where to append the amount
+	 * @param long cents - the amount to append
+	 * @return StringBuilder to
+	 */
+	public static StringBuilder append(StringBuilder to, long cents) {
+		if (cents < 0) {
+			to.append('-');
+			if (cents == Long.MIN_VALUE) {
+				return to.append(-(cents / 100)).append('.').append(-(cents % 100));
+			}
+			cents = -cents;
+		}
+		long fraction = cents % 100;
+		return to.append(cents / 100).append('.').append(fraction < 10 ? "0" : "").append(fraction);
+	}
+}
@@ -0,0 +1,168 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Case insensitive index from a name to every object stored under that name.
+// Names are compared with equalsIgnoreCase and hashed one folded char at a time,
+// so a lookup never has to build a lower case copy of the name it is given.
+
+public class NameIndex<V> {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private Entry<V>[] table;
+    private int size; // number of distinct names
+
+    private static class Entry<V> {
+        final String name;
+        final int hash;
+        final ArrayList<V> values = new ArrayList<>(1);
+        Entry<V> next;
+
+        Entry(String name, int hash, Entry<V> next) {
+            this.name = name;
+            this.hash = hash;
+            this.next = next;
+        }
+    }
+
+    /**
+     * Constructor
+     *
+     */
+    public NameIndex() {
+        table = newTable(MIN_CAPACITY);
+    }
+
+    /**
+     * Get method to get the first object added under a name * case insensitive *
+     * @param String name - the name we are looking to find
+     * @return V if found, null if not found.
+     *
+     */
+    public V getFirst(String name) {
+        Entry<V> entry = find(name);
+        return entry == null ? null : entry.values.get(0);
+    }
+
+    /**
+     * Get method to get every object stored under a name * case insensitive *
+     * @param String name - the name we are looking to find
+     * @return read only List of matches in the order they were added, empty if none were found.
+     *
+     */
+    public List<V> get(String name) {
+        Entry<V> entry = find(name);
+        if (entry == null) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(entry.values);
+    }
+
+    /**
+     * Adds an object under a name.
+     * @param String name - the name to store the object under.
+     * @param V value - the object to store.
+     *
+     */
+    public void add(String name, V value) {
+        if (name == null) {
+            return;
+        }
+        Entry<V> entry = find(name);
+        if (entry == null) {
+            int hash = foldedHash(name);
+            int bucket = hash & (table.length - 1);
+            entry = table[bucket] = new Entry<>(name, hash, table[bucket]);
+            if (++size > table.length * 3 / 4) {
+                resize();
+            }
+        }
+        entry.values.add(value);
+    }
+
+    /**
+     * Removes an object stored under a name.
+     * @param String name - the name the object was stored under.
+     * @param V value - the object to remove.
+     * @return boolean success indicator
+     *
+     */
+    public boolean remove(String name, V value) {
+        if (name == null) {
+            return false;
+        }
+        int hash = foldedHash(name);
+        int bucket = hash & (table.length - 1);
+        Entry<V> previous = null;
+        for (Entry<V> entry = table[bucket]; entry != null; previous = entry, entry = entry.next) {
+            if (entry.hash == hash && entry.name.equalsIgnoreCase(name)) {
+                boolean removed = entry.values.remove(value);
+                if (entry.values.isEmpty()) {
+                    if (previous == null) {
+                        table[bucket] = entry.next;
+                    } else {
+                        previous.next = entry.next;
+                    }
+                    size--;
+                }
+                return removed;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Moves an object from one name to another, used when the object is renamed.
+     * The object is stored under the new name even if it had no name before.
+     * @param String oldName - the name the object was stored under, may be null.
+     * @param String newName - the name to store the object under.
+     * @param V value - the object that was renamed.
+     *
+     */
+    public void rename(String oldName, String newName, V value) {
+        remove(oldName, value);
+        add(newName, value);
+    }
+
+    private Entry<V> find(String name) {
+        if (name == null) {
+            return null;
+        }
+        int hash = foldedHash(name);
+        for (Entry<V> entry = table[hash & (table.length - 1)]; entry != null; entry = entry.next) {
+            if (entry.hash == hash && entry.name.equalsIgnoreCase(name)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private void resize() {
+        Entry<V>[] oldTable = table;
+        table = newTable(oldTable.length << 1);
+        for (Entry<V> entry : oldTable) {
+            while (entry != null) {
+                Entry<V> next = entry.next;
+                int bucket = entry.hash & (table.length - 1);
+                entry.next = table[bucket];
+                table[bucket] = entry;
+                entry = next;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> Entry<V>[] newTable(int capacity) {
+        return (Entry<V>[]) new Entry<?>[capacity];
+    }
+
+    // Any two names that are equalsIgnoreCase produce the same hash.
+    private static int foldedHash(String name) {
+        int h = 0;
+        for (int i = 0; i < name.length(); i++) {
+            h = 31 * h + Character.toLowerCase(Character.toUpperCase(name.charAt(i)));
+        }
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,72 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Page is one page of a listing, returned by the getPage methods of MemberList,
+ * ProductList and ShipmentList. Pass getNextCursor to the next call to get the page
+ * after it, starting with FIRST. A cursor stays valid while the list changes: items
+ * added after it are listed later, and removing items never makes a page skip or
+ * repeat the items that are left.
+ *
+ * @param <T> the type of the items listed
+ */
+
+public class Page<T> {
+
+	public static final long FIRST = 0; // cursor of the first page
+
+	private final List<T> items;
+	private final long nextCursor;
+	private final boolean more;
+
+	Page(List<T> items, long nextCursor, boolean more) {
+		this.items = Collections.unmodifiableList(items);
+		this.nextCursor = nextCursor;
+		this.more = more;
+	}
+
+	// Pages through a list that is in increasing order of the items' listing sequence, so
+	// the first item after the cursor is found with a binary search. Caller locks the list.
+	static <T> Page<T> of(List<T> list, ToLongFunction<T> sequence, long cursor, int pageSize) {
+		if (pageSize < 1) {
+			throw new IllegalArgumentException("Page size must be at least 1.");
+		}
+		int low = 0;
+		int high = list.size();
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (sequence.applyAsLong(list.get(middle)) <= cursor) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		int to = (int) Math.min((long) low + pageSize, list.size());
+		ArrayList<T> items = new ArrayList<>(list.subList(low, to));
+		long next = items.isEmpty() ? cursor : sequence.applyAsLong(items.get(items.size() - 1));
+		return new Page<>(items, next, to < list.size());
+	}
+
+	/**
+	 * @return List<T> the items of this page, in list order
+	 */
+	public List<T> getItems() {
+		return items;
+	}
+
+	/**
+	 * @return long cursor of the page after this one
+	 */
+	public long getNextCursor() {
+		return nextCursor;
+	}
+
+	/**
+	 * @return boolean true if there were more items after this page when it was made
+	 */
+	public boolean hasMore() {
+		return more;
+	}
+}
@@ -0,0 +1,237 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+// Case insensitive index from every word of a name to the objects with that name, for
+// finding objects by the start of any of their words: "choc" finds "Dark Chocolate" and
+// "Chocolate Milk". Words are runs of letters and digits, folded the same way NameIndex
+// compares names. The words are kept sorted, so the words starting with a prefix are
+// next to each other and a search only reads the matches it returns. Removing an object
+// from a word shared by many objects is constant time, see Postings.
+
+public class PrefixIndex<V> {
+
+    private final TreeMap<String, Postings<V>> byWord = new TreeMap<>(); // folded word -> objects, in the order added
+    private final Function<V, String> nameOf;
+
+    /**
+     * Constructor
+     * @param Function nameOf - gets the current name of an object, to check searches of several words.
+     *
+     */
+    public PrefixIndex(Function<V, String> nameOf) {
+        this.nameOf = nameOf;
+    }
+
+    /**
+     * Adds an object under every word of its name.
+     * @param String name - the name of the object.
+     * @param V value - the object to store.
+     *
+     */
+    public void add(String name, V value) {
+        for (String word : words(name)) {
+            byWord.computeIfAbsent(word, w -> new Postings<>()).add(value);
+        }
+    }
+
+    /**
+     * Removes an object stored under a name.
+     * @param String name - the name the object was stored under.
+     * @param V value - the object to remove.
+     *
+     */
+    public void remove(String name, V value) {
+        for (String word : words(name)) {
+            Postings<V> values = byWord.get(word);
+            if (values != null && values.remove(value) && values.isEmpty()) {
+                byWord.remove(word);
+            }
+        }
+    }
+
+    /**
+     * Moves an object from one name to another, used when the object is renamed.
+     * @param String oldName - the name the object was stored under.
+     * @param String newName - the name to store the object under.
+     * @param V value - the object that was renamed.
+     *
+     */
+    public void rename(String oldName, String newName, V value) {
+        remove(oldName, value);
+        add(newName, value);
+    }
+
+    /**
+     * Finds the objects that have, for every word typed, a word starting with it.
+     * @param String text - one or more partial words, such as "choc mi".
+     * @param int k - the most objects to return.
+     * @return List of up to k matches, ordered by their matching word and then in the
+     *         order they were added. Empty if the text has no words.
+     *
+     */
+    public List<V> search(String text, int k) {
+        List<String> prefixes = words(text);
+        if (prefixes.isEmpty() || k < 1) {
+            return Collections.emptyList();
+        }
+        ArrayList<V> found = new ArrayList<>(Math.min(k, 16));
+        Set<V> seen = Collections.newSetFromMap(new IdentityHashMap<>()); // objects with several matching words
+        for (Postings<V> values : startingWith(narrowest(prefixes))) {
+            for (V value : values.values) {
+                if (value == null) {
+                    continue; // removed
+                }
+                if (prefixes.size() > 1 && !matchesAll(nameOf.apply(value), prefixes)) {
+                    continue;
+                }
+                if (seen.add(value)) {
+                    found.add(value);
+                    if (found.size() == k) {
+                        return found;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    private Collection<Postings<V>> startingWith(String prefix) {
+        return byWord.subMap(prefix, true, prefix + Character.MAX_VALUE, true).values();
+    }
+
+    // The prefix with the fewest objects, so a search of several words reads as few
+    // objects as possible. Counting a prefix stops once it is no better than the best so far.
+    private String narrowest(List<String> prefixes) {
+        String narrowest = prefixes.get(0);
+        if (prefixes.size() == 1) {
+            return narrowest;
+        }
+        long fewest = Long.MAX_VALUE;
+        for (String prefix : prefixes) {
+            long count = 0;
+            for (Postings<V> values : startingWith(prefix)) {
+                count += values.size();
+                if (count >= fewest) {
+                    break;
+                }
+            }
+            if (count < fewest) {
+                fewest = count;
+                narrowest = prefix;
+            }
+        }
+        return narrowest;
+    }
+
+    private static boolean matchesAll(String name, List<String> prefixes) {
+        List<String> words = words(name);
+        for (String prefix : prefixes) {
+            boolean matched = false;
+            for (String word : words) {
+                if (word.startsWith(prefix)) {
+                    matched = true;
+                    break;
+                }
+            }
+            if (!matched) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // The distinct folded words of a name, in the order they appear.
+    static List<String> words(String name) {
+        ArrayList<String> words = new ArrayList<>(4);
+        if (name == null) {
+            return words;
+        }
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i <= name.length(); i++) {
+            char c = i < name.length() ? name.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                word.append(Character.toLowerCase(Character.toUpperCase(c)));
+            } else if (word.length() > 0) {
+                String folded = word.toString();
+                if (!words.contains(folded)) {
+                    words.add(folded);
+                }
+                word.setLength(0);
+            }
+        }
+        return words;
+    }
+
+    // The objects of one word, in the order they were added. A search reads them straight
+    // from an array. Removing one leaves an empty slot, found by a scan while the word has
+    // few objects and through a map from object to slot once it has many, and the slots
+    // are compacted once at least half of them are empty.
+    private static final class Postings<V> {
+        private static final int SCAN_LIMIT = 16; // objects beyond which removals use the slot map
+
+        private final ArrayList<V> values = new ArrayList<>(1); // null for a removed object
+        private IdentityHashMap<V, Integer> slots; // object -> index in values, null while few
+        private int size = 0;
+
+        void add(V value) {
+            if (slots != null) {
+                slots.put(value, values.size());
+            }
+            values.add(value);
+            size++;
+            if (slots == null && values.size() > SCAN_LIMIT) {
+                indexSlots();
+            }
+        }
+
+        boolean remove(V value) {
+            int slot = -1;
+            if (slots != null) {
+                Integer found = slots.remove(value);
+                slot = found == null ? -1 : found;
+            } else {
+                for (int i = 0; i < values.size(); i++) {
+                    if (values.get(i) == value) {
+                        slot = i;
+                        break;
+                    }
+                }
+            }
+            if (slot < 0) {
+                return false;
+            }
+            values.set(slot, null);
+            size--;
+            if (size * 2 <= values.size()) {
+                values.removeIf(v -> v == null);
+                if (slots != null) {
+                    indexSlots();
+                }
+            }
+            return true;
+        }
+
+        int size() {
+            return size;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        private void indexSlots() {
+            slots = new IdentityHashMap<>(values.size());
+            for (int i = 0; i < values.size(); i++) {
+                if (values.get(i) != null) {
+                    slots.put(values.get(i), i);
+                }
+            }
+        }
+    }
+}
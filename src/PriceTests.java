@@ -1,4 +1,5 @@
 import static org.junit.Assert.*;
+import java.util.ArrayList;
 import org.junit.Before;
 import org.junit.Test;
 public class PriceTests {
@@ -26,4 +27,24 @@ public class PriceTests {
         assertFalse("No such product ID should exist in the catalog.", result);
     }
 
+    @Test
+    public void testPricesRoundToCents() {
+        Product product = new Product("Gum", 12346, 10, 1.005, 5);
+        assertEquals(101, product.getPriceCents());
+        assertEquals("1.01", Money.format(product.getPriceCents()));
+        assertEquals("-0.05", Money.format(-5));
+    }
+
+    @Test
+    public void testLargeTotalsAreExact() {
+        Product dime = new Product("Dime Candy", 12347, 10, 0.10, 5);
+        Cart cart = new Cart(100);
+        for (int i = 0; i < 1_000_000; i++) {
+            cart.addLineItemToCart(new LineItem(dime, 1));
+        }
+        assertEquals("A million dimes add up to exactly $100,000.", 10_000_000L, cart.calculateSalesCents());
+        Transaction transaction = cart.createTransaction();
+        assertEquals(10_000_000L, transaction.getTotalCents());
+    }
+
 }
@@ -1,13 +1,18 @@
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 // Product class
 
 public class Product {
 
 	private String productName;
 	private int productID;
-	private int currentStock;
+	private final AtomicInteger currentStock = new AtomicInteger(); // updated lock free by concurrent checkouts
 	private int restockAmount;
-	private double price;
+	private long priceCents; // see Money
+	private ProductList catalog; // the catalog this product is indexed in, if any
+	private long listSequence; // order in which the product was added to its catalog, see ProductList.getPage
+	private volatile int lowStockPosition = -1; // index in the catalog's LowStockTracker, -1 if not low on stock
 
 	/**
      * Constructor
@@ -22,16 +27,16 @@ public class Product {
 		this.productName = productName;
 		this.productID = productID;
 		this.restockAmount = restockAmount;
-		this.price = price;
-		this.currentStock = currentStock;
+		this.priceCents = Money.toCents(price);
+		this.currentStock.set(currentStock);
 	}
 
 	public Product(String productName, int productID, int restockAmount, double price) {
 		this.productName = productName;
 		this.productID = productID;
 		this.restockAmount = restockAmount;
-		this.price = price;
-		this.currentStock = restockAmount*2;
+		this.priceCents = Money.toCents(price);
+		this.currentStock.set(restockAmount*2);
 	}
 
 
@@ -40,7 +45,11 @@ public class Product {
 	}
 
 	public void setProductName(String name) {
+		String oldName = this.productName;
 		this.productName = name;
+		if (catalog != null) {
+			catalog.productRenamed(this, oldName);
+		}
 	}
 
 	public int getProductID() {
@@ -48,15 +57,20 @@ public class Product {
 	}
 
 	public void setProductID(int id) {
+		int oldID = this.productID;
 		this.productID = id;
+		if (catalog != null && oldID != id) {
+			catalog.productIDChanged(this, oldID);
+		}
 	}
 
 	public int getCurrentStock() {
-		return currentStock;
+		return currentStock.get();
 	}
 
 	public void setCurrentStock(int currentStock) {
-		this.currentStock = currentStock;
+		this.currentStock.set(currentStock);
+		stockChanged();
 	}
 
 	public int getRestockAmount() {
@@ -65,18 +79,90 @@ public class Product {
 
 	public void setRestockAmount(int restockThreshold) {
 		this.restockAmount = restockThreshold;
+		stockChanged();
 	}
 
 	public double getPrice() {
-		return price;
+		return Money.toDollars(priceCents);
 	}
 
+	// Sets the price, rounded to the nearest cent.
 	public void setPrice(double price) {
-		this.price = price;
+		this.priceCents = Money.toCents(price);
+	}
+
+	public long getPriceCents() {
+		return priceCents;
+	}
+
+	public void setPriceCents(long priceCents) {
+		this.priceCents = priceCents;
+	}
+
+	ProductList getCatalog() {
+		return catalog;
+	}
+
+	void setCatalog(ProductList catalog) {
+		this.catalog = catalog;
+	}
+
+	long getListSequence() {
+		return listSequence;
+	}
+
+	void setListSequence(long listSequence) {
+		this.listSequence = listSequence;
+	}
+
+	int getLowStockPosition() {
+		return lowStockPosition;
 	}
 
-	public void updateStock(int quantity) {
-		this.currentStock += quantity;
+	void setLowStockPosition(int position) {
+		this.lowStockPosition = position;
+	}
+
+	/**
+     * Adds to the current stock, or removes from it for a negative quantity.
+     * The update is atomic, so concurrent checkouts never lose an update.
+     * 
+     * @param int quantity - the amount to add to the stock.
+     * @return int the stock after the update.
+     */
+	public int updateStock(int quantity) {
+		int stock = currentStock.addAndGet(quantity);
+		stockChanged();
+		return stock;
+	}
+
+	/**
+     * Takes a quantity out of stock only if there is enough of it. Uses compare and set
+     * rather than a lock, so registers selling the same product never wait on each other
+     * and the stock can never go below zero.
+     * 
+     * @param int quantity - the amount to take out of stock.
+     * @return boolean true if the stock was decremented, false if there was not enough stock.
+     */
+	public boolean tryDecrementStock(int quantity) {
+		while (true) {
+			int stock = currentStock.get();
+			if (stock < quantity) {
+				return false;
+			}
+			if (currentStock.compareAndSet(stock, stock - quantity)) {
+				stockChanged();
+				return true;
+			}
+		}
+	}
+
+	// lets the catalog track products that run low
+	private void stockChanged() {
+		ProductList current = catalog;
+		if (current != null) {
+			current.getLowStock().update(this);
+		}
 	}
 
 	/**
@@ -84,12 +170,22 @@ public class Product {
      * 
      */
 	public void print() {
-		System.out.println("---------- Product Info ----------");
-		System.out.println("Name: " + this.getProductName());
-		System.out.println("ID: " + this.getProductID());
-		System.out.println("Current Stock: " + this.getCurrentStock());
-		System.out.println("Restock level: " + this.getRestockAmount());
-		System.out.println("Unit Price: " + this.getPrice());
-		System.out.println("----------------------------------\n");
+		System.out.print(format(new StringBuilder(256)));
+	}
+
+	/**
+	 * Appends the product details as print shows them.
+	 * 
+	 * @param StringBuilder to - where to append the details
+	 * @return StringBuilder to
+	 */
+	public StringBuilder format(StringBuilder to) {
+		to.append("---------- Product Info ----------\n");
+		to.append("Name: ").append(this.getProductName()).append('\n');
+		to.append("ID: ").append(this.getProductID()).append('\n');
+		to.append("Current Stock: ").append(this.getCurrentStock()).append('\n');
+		to.append("Restock level: ").append(this.getRestockAmount()).append('\n');
+		Money.append(to.append("Unit Price: "), this.getPriceCents()).append('\n');
+		return to.append("----------------------------------\n\n");
 	}
 }
@@ -1,11 +1,21 @@
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
-// Collection class for holding Product objects
+// Collection class for holding Product objects. Lookups take the read lock so
+// many registers can scan products at once while the catalog is being edited.
 
 public class ProductList {
 	
     private ArrayList<Product> productList = new ArrayList<>();
+    private IntHashMap<Product> productsByID = new IntHashMap<>(); // productID -> first product added with that ID
+    private NameIndex<Product> productsByName = new NameIndex<>(); // case insensitive product name -> products
+    private PrefixIndex<Product> productsByWord = new PrefixIndex<>(Product::getProductName); // each word of a name -> products
     private int totalProducts = 0;
+    private long nextSequence = 1; // listing sequence of the next product added, see getPage
+    private final LowStockTracker lowStock = new LowStockTracker(); // products at or below their restock amount
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
 
     /**
      * Get method to get a product with a specified productID
@@ -14,12 +24,12 @@ public class ProductList {
      * 
      */
     public Product getProduct(int productID){
-        for(Product product : productList){
-            if(product.getProductID() == productID){
-                return product;
-            }
+        lock.readLock().lock();
+        try {
+            return productsByID.get(productID);
+        } finally {
+            lock.readLock().unlock();
         }
-        return null;
     }
 
     /**
@@ -29,12 +39,29 @@ public class ProductList {
      * 
      */
     public Product getProduct(String productName){
-        for(Product product : productList){
-            if (product.getProductName().toLowerCase().equals(productName.toLowerCase())) {
-                return product;
-            }
+        lock.readLock().lock();
+        try {
+            return productsByName.getFirst(productName);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Search method for products whose name has a word starting with each word typed
+     * * case insensitive *, such as "choc mi" for "Chocolate Milk"
+     * @param String text - the start of one or more words of the name
+     * @param int k - the most products to return
+     * @return List of up to k matching products, empty if none were found.
+     * 
+     */
+    public List<Product> searchProducts(String text, int k){
+        lock.readLock().lock();
+        try {
+            return productsByWord.search(text, k);
+        } finally {
+            lock.readLock().unlock();
         }
-        return null;
     }
     
     public ArrayList<Product> getProductList() {
@@ -64,19 +91,105 @@ public class ProductList {
      * 
      */
     public boolean addProduct(Product product){
-        if(productList.contains(product))
+        if(product == null)
         {
-            System.out.println("Product already in catalog.");
-            return false;
+            return true; // nothing to add, null products are ignored
+        }
+        lock.writeLock().lock();
+        try {
+            if(product.getCatalog() == this)
+            {
+                System.out.println("Product already in catalog.");
+                return false;
+            }
+
+            boolean success = productList.add(product);
+            if (success) {
+                totalProducts++;
+                if (product.getCatalog() != null) {
+                    product.getCatalog().getLowStock().remove(product); // a product is tracked by one catalog
+                }
+                product.setCatalog(this);
+                product.setListSequence(nextSequence++);
+                productsByID.putIfAbsent(product.getProductID(), product);
+                productsByName.add(product.getProductName(), product);
+                productsByWord.add(product.getProductName(), product);
+                lowStock.update(product);
+            }
+            return success;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gets one page of products, in the order they were added.
+     * @param long cursor - Page.FIRST, or the next cursor of the previous page
+     * @param int pageSize - the most products to return
+     * @return Page of products after the cursor
+     *
+     */
+    public Page<Product> getPage(long cursor, int pageSize){
+        lock.readLock().lock();
+        try {
+            return Page.of(productList, Product::getListSequence, cursor, pageSize);
+        } finally {
+            lock.readLock().unlock();
         }
+    }
+
+    /**
+     * Get method for the products that need restocking
+     * @return LowStockTracker kept up to date as stock changes
+     *
+     */
+    public LowStockTracker getLowStock(){
+        return lowStock;
+    }
 
-        boolean success = productList.add(product);
-        if (success) {
-            totalProducts++;
+    /**
+     * Called by a Product in this list when its ID changes, so the ID index
+     * can be moved to the new key.
+     * @param Product product - the product whose ID changed.
+     * @param int oldID - the ID the product was indexed under.
+     * 
+     */
+    void productIDChanged(Product product, int oldID){
+        lock.writeLock().lock();
+        try {
+            if (productsByID.get(oldID) == product) {
+                productsByID.remove(oldID);
+                // another product may share the old ID, so hand the key to the next one in the list
+                for (Product other : productList) {
+                    if (other.getProductID() == oldID) {
+                        productsByID.put(oldID, other);
+                        break;
+                    }
+                }
+            }
+            productsByID.putIfAbsent(product.getProductID(), product);
+        } finally {
+            lock.writeLock().unlock();
         }
-        return success;
     }
     
+    /**
+     * Called by a Product in this list when it is renamed, so the name index
+     * can be moved to the new name.
+     * @param Product product - the product that was renamed.
+     * @param String oldName - the name the product was indexed under.
+     * 
+     */
+    void productRenamed(Product product, String oldName){
+        lock.writeLock().lock();
+        try {
+            productsByName.rename(oldName, product.getProductName(), product);
+            productsByWord.rename(oldName, product.getProductName(), product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
     /**
      * Print method for printing Product information for every
      * product in the list.
@@ -0,0 +1,63 @@
+import java.util.Random;
+
+/**
+ * Benchmark for ProductList.getProduct(int). Builds catalogs of increasing size and
+ * measures the average time of a lookup by product ID, which should stay flat as
+ * the catalog grows.
+ *
+ * Run with: java ProductLookupBenchmark
+ */
+
+public class ProductLookupBenchmark {
+
+	private static final int[] CATALOG_SIZES = { 1_000, 10_000, 100_000, 1_000_000 };
+	private static final int LOOKUPS = 2_000_000;
+	private static final int ROUNDS = 5;
+
+	public static void main(String[] args) {
+		System.out.printf("%-12s %-14s%n", "Products", "ns/lookup");
+		for (int size : CATALOG_SIZES) {
+			System.out.printf("%-12d %-14.1f%n", size, measure(size));
+		}
+	}
+
+	/**
+	 * Builds a catalog with the given number of products and times random ID lookups.
+	 * The first rounds are warmup, the best of the remaining rounds is reported.
+	 *
+	 * @param int size - the number of products in the catalog
+	 * @return double average nanoseconds per lookup
+	 */
+	private static double measure(int size) {
+		Random random = new Random(size);
+		ProductList catalog = new ProductList();
+		int[] ids = new int[size];
+		for (int i = 0; i < size; i++) {
+			// SKUs are spread out rather than sequential
+			ids[i] = 10_000_000 + i * 7 + random.nextInt(7);
+			catalog.addProduct(new Product("Product " + i, ids[i], 5, 1.99));
+		}
+
+		int[] queries = new int[LOOKUPS];
+		for (int i = 0; i < LOOKUPS; i++) {
+			queries[i] = ids[random.nextInt(size)];
+		}
+
+		double best = Double.MAX_VALUE;
+		long checksum = 0;
+		for (int round = 0; round < ROUNDS; round++) {
+			long start = System.nanoTime();
+			for (int id : queries) {
+				checksum += catalog.getProduct(id).getRestockAmount();
+			}
+			double perLookup = (System.nanoTime() - start) / (double) LOOKUPS;
+			if (round > 1) {
+				best = Math.min(best, perLookup);
+			}
+		}
+		if (checksum == 42) {
+			System.out.println(); // keeps the lookups from being optimized away
+		}
+		return best;
+	}
+}
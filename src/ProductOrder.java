@@ -0,0 +1,77 @@
+// ProductOrder class. A pending order for one product in the ShipmentList,
+// holding the total quantity that is on its way.
+
+public class ProductOrder {
+
+	private Product product;
+	private int quantity;
+	private int position; // index of this order in the ShipmentList's order list
+	private long listSequence; // order in which the order was placed, see ShipmentList.getPage
+
+	/**
+     * Constructor
+     *
+     * @param Product product - the product on order.
+     * @param int quantity - the quantity on order.
+     */
+	public ProductOrder(Product product, int quantity) {
+		this.product = product;
+		this.quantity = quantity;
+	}
+
+	public Product getProduct() {
+		return product;
+	}
+
+	public int getProductID() {
+		return product.getProductID();
+	}
+
+	public int getQuantity() {
+		return quantity;
+	}
+
+	public void setQuantity(int quantity) {
+		this.quantity = quantity;
+	}
+
+	int getPosition() {
+		return position;
+	}
+
+	void setPosition(int position) {
+		this.position = position;
+	}
+
+	long getListSequence() {
+		return listSequence;
+	}
+
+	void setListSequence(long listSequence) {
+		this.listSequence = listSequence;
+	}
+
+	/**
+     * Print method to print order details to console.
+     *
+     */
+	public void print() {
+		System.out.println(format(new StringBuilder(256)));
+	}
+
+	/**
+     * Appends the order details as print shows them, without the final blank line.
+     *
+     * @param StringBuilder to - where to append the details
+     * @return StringBuilder to
+     */
+	public StringBuilder format(StringBuilder to) {
+		to.append("----------------------------------\n");
+		to.append("Name: ").append(product.getProductName()).append('\n');
+		to.append("ID: ").append(product.getProductID()).append('\n');
+		to.append("Current Stock: ").append(product.getCurrentStock()).append('\n');
+		to.append("Restock Amount: ").append(product.getRestockAmount()).append('\n');
+		to.append("Quantity on order: ").append(quantity).append('\n');
+		return to.append("----------------------------------\n");
+	}
+}
@@ -1,4 +1,7 @@
 import static org.junit.Assert.*;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -66,6 +69,38 @@ public class ProductTests {
         assertNull("No product of that name should exist in calendar.", p2);
     }
 
+    @Test
+    public void testGetProductAfterIDChange(){
+        productList.addProduct(product2);
+        int oldID = product2.getProductID();
+        product2.setProductID(55555);
+        assertNull("Old ID should no longer find the product.", productList.getProduct(oldID));
+        assertSame("New ID should find the product.", product2, productList.getProduct(55555));
+    }
+
+    @Test
+    public void testGetProductByNameIgnoresCase(){
+        productList.addProduct(product3);
+        assertSame("Name lookup should ignore case.", product3, productList.getProduct("cOFFEE"));
+    }
+
+    @Test
+    public void testGetProductAfterRename(){
+        productList.addProduct(product3);
+        product3.setProductName("Espresso");
+        assertNull("Old name should no longer find the product.", productList.getProduct("Coffee"));
+        assertSame("New name should find the product.", product3, productList.getProduct("espresso"));
+    }
+
+    @Test
+    public void testGetProductNamedAfterAdding(){
+        Product unnamed = new Product(null, 77001, 5, 1.00, 10);
+        productList.addProduct(unnamed);
+        unnamed.setProductName("Named Later");
+        assertSame("A product first added without a name should be found by its new name.", unnamed,
+                productList.getProduct("named later"));
+    }
+
     @Test
     public void testAddNullProduct(){
         boolean result = groceryStore.addProductToCatalog(null);
@@ -73,4 +108,87 @@ public class ProductTests {
     }
 
 
-}
\ No newline at end of file
+
+    @Test
+    public void testProductPaging(){
+        for (int i = 0; i < 25; i++) {
+            productList.addProduct(new Product("Paged " + i, 88600 + i, 2, 1.0, 5));
+        }
+        Page<Product> first = productList.getPage(Page.FIRST, 10);
+        assertEquals(10, first.getItems().size());
+        assertTrue(first.hasMore());
+        assertEquals(88600, first.getItems().get(0).getProductID());
+
+        productList.addProduct(new Product("Paged late", 88699, 2, 1.0, 5));
+        ArrayList<Integer> rest = new ArrayList<>();
+        long cursor = first.getNextCursor();
+        Page<Product> page;
+        do {
+            page = productList.getPage(cursor, 10);
+            for (Product product : page.getItems()) {
+                rest.add(product.getProductID());
+            }
+            cursor = page.getNextCursor();
+        } while (page.hasMore());
+        assertEquals("Products added later should come last.", 16, rest.size());
+        assertEquals(88610, (int) rest.get(0));
+        assertEquals(88699, (int) rest.get(15));
+        assertTrue(productList.getPage(cursor, 10).getItems().isEmpty());
+    }
+
+    @Test
+    public void testWriteProductsMatchesPrint(){
+        Product milk = new Product("Listed Milk", 88701, 2, 3.49, 5);
+        groceryStore.addProductToCatalog(milk);
+        StringWriter listing = new StringWriter();
+        assertTrue(groceryStore.writeProducts(listing));
+        assertTrue(listing.toString().contains(milk.format(new StringBuilder())));
+    }
+
+    @Test
+    public void testSearchByWordPrefix(){
+        Product milk = new Product("Chocolate Milk", 88901, 2, 2.49, 5);
+        Product bar = new Product("Dark Chocolate-Bar", 88902, 2, 1.99, 5);
+        Product mint = new Product("Mint chocolate chip", 88903, 2, 4.99, 5);
+        productList.addProduct(milk);
+        productList.addProduct(bar);
+        productList.addProduct(mint);
+        productList.addProduct(product3);
+
+        assertEquals(List.of(milk, bar, mint), productList.searchProducts("CHOC", 10));
+        assertEquals(List.of(milk, mint), productList.searchProducts("choc mi", 10));
+        assertEquals("Words are split on punctuation.", List.of(bar), productList.searchProducts("bar", 10));
+        assertEquals("Searches stop at k matches.", 2, productList.searchProducts("c", 2).size());
+        assertEquals("A product with two matching words is listed once, by its first match.", List.of(mint, milk, bar),
+                productList.searchProducts("ch", 10));
+        assertTrue(productList.searchProducts("  ", 10).isEmpty());
+        assertTrue(productList.searchProducts("tea", 10).isEmpty());
+
+        milk.setProductName("Oat Milk");
+        assertEquals(List.of(bar, mint), productList.searchProducts("choc", 10));
+        assertEquals(List.of(milk), productList.searchProducts("oat", 10));
+    }
+
+    @Test
+    public void testSearchOrderSurvivesManyRenames(){
+        List<Product> expected = new ArrayList<>();
+        List<Product> renamed = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            Product product = new Product("Bulk Item " + i, 88910 + i, 2, 1.00, 5);
+            productList.addProduct(product);
+            (i % 3 == 0 ? renamed : expected).add(product);
+        }
+        for (Product product : renamed) {
+            product.setProductName("Loose Piece " + product.getProductID());
+        }
+        assertEquals(expected, productList.searchProducts("bulk", 100));
+        assertEquals(renamed, productList.searchProducts("loose", 100));
+
+        for (Product product : expected) {
+            product.setProductName("Sold Out");
+        }
+        assertTrue(productList.searchProducts("item", 100).isEmpty());
+        renamed.get(0).setProductName("Bulk Again");
+        assertEquals(List.of(renamed.get(0)), productList.searchProducts("bulk", 100));
+    }
+}
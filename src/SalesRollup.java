@@ -0,0 +1,205 @@
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Running sales totals per day and per product per day. Every Transaction is added once,
+// as it is saved, so sales reports read a few counters instead of going through every
+// Transaction and LineItem in the TransactionList. Days are keyed by their epoch day in
+// the rollup's time zone and products by product ID, both in IntHashMaps.
+// Safe to share between registers: every method locks the rollup.
+
+public class SalesRollup {
+
+	private final ZoneId zone;
+	private final IntHashMap<DaySales> days = new IntHashMap<>(); // epoch day -> sales that day
+
+	/**
+	 * Constructor
+	 *
+	 * @param ZoneId zone - time zone that decides which day a sale falls on
+	 */
+	public SalesRollup(ZoneId zone) {
+		this.zone = zone;
+	}
+
+	/**
+	 * Adds a Transaction to the totals of the day it was sold on. Transactions without a
+	 * date of sale are not counted.
+	 *
+	 * @param Transaction tx - the Transaction to add
+	 */
+	public synchronized void addTransaction(Transaction tx) {
+		ZonedDateTime dateOfSale = tx.getDateOfSale();
+		if (dateOfSale == null) {
+			return;
+		}
+		int epochDay = (int) dateOfSale.withZoneSameInstant(zone).toLocalDate().toEpochDay();
+		DaySales day = days.get(epochDay);
+		if (day == null) {
+			day = new DaySales();
+			days.put(epochDay, day);
+		}
+		day.totals.transactionCount++;
+		day.totals.revenueCents += tx.getTotalCents();
+		for (LineItem lineItem : tx.lineItemList) {
+			int productID = lineItem.getProduct().getProductID();
+			ProductSales product = day.totals.products.get(productID);
+			if (product == null) {
+				product = new ProductSales(productID);
+				day.totals.products.put(productID, product);
+			}
+			product.unitsSold += lineItem.getQuantity();
+			product.revenueCents += lineItem.getPriceCents();
+			day.totals.unitsSold += lineItem.getQuantity();
+		}
+	}
+
+	/**
+	 * @param List<Transaction> added - the Transactions to add, see addTransaction
+	 */
+	public synchronized void addTransactions(List<Transaction> added) {
+		for (Transaction tx : added) {
+			addTransaction(tx);
+		}
+	}
+
+	/**
+	 * Adds the Transactions of a TransactionList from an index on, such as the ones a load appended.
+	 *
+	 * @param TransactionList transactions - the list to read
+	 * @param int from - index of the first Transaction to add
+	 */
+	public synchronized void addTransactions(TransactionList transactions, int from) {
+		for (int i = from; i < transactions.size(); i++) {
+			addTransaction(transactions.get(i));
+		}
+	}
+
+	/**
+	 * Adds up the sales of a range of days. Costs one lookup per day plus one per product
+	 * sold in the range, however many Transactions there were.
+	 *
+	 * @param LocalDate first - first day of the range
+	 * @param LocalDate last - last day of the range, included
+	 * @return SalesTotals the sales in the range, all zero if nothing was sold
+	 */
+	public synchronized SalesTotals getSales(LocalDate first, LocalDate last) {
+		SalesTotals range = new SalesTotals(first, last);
+		for (long epochDay = first.toEpochDay(); epochDay <= last.toEpochDay(); epochDay++) {
+			DaySales day = days.get((int) epochDay);
+			if (day == null) {
+				continue;
+			}
+			range.transactionCount += day.totals.transactionCount;
+			range.unitsSold += day.totals.unitsSold;
+			range.revenueCents += day.totals.revenueCents;
+			for (ProductSales sold : day.totals.products.values()) {
+				ProductSales product = range.products.get(sold.productID);
+				if (product == null) {
+					product = new ProductSales(sold.productID);
+					range.products.put(sold.productID, product);
+				}
+				product.unitsSold += sold.unitsSold;
+				product.revenueCents += sold.revenueCents;
+			}
+		}
+		return range;
+	}
+
+	/**
+	 * @param LocalDate day - the day to look up
+	 * @return SalesTotals the sales on that day, see getSales
+	 */
+	public SalesTotals getSales(LocalDate day) {
+		return getSales(day, day);
+	}
+
+	// The running totals of one day.
+	private static class DaySales {
+		private final SalesTotals totals = new SalesTotals(null, null);
+	}
+
+	// Totals for a range of days, returned by getSales. Changing the rollup afterwards does not change them.
+	public static class SalesTotals {
+		private final LocalDate first;
+		private final LocalDate last;
+		private int transactionCount;
+		private long unitsSold;
+		private long revenueCents;
+		private final IntHashMap<ProductSales> products = new IntHashMap<>();
+
+		private SalesTotals(LocalDate first, LocalDate last) {
+			this.first = first;
+			this.last = last;
+		}
+
+		public LocalDate getFirstDay() {
+			return first;
+		}
+
+		public LocalDate getLastDay() {
+			return last;
+		}
+
+		public int getTransactionCount() {
+			return transactionCount;
+		}
+
+		public long getUnitsSold() {
+			return unitsSold;
+		}
+
+		/**
+		 * @return long revenue in cents, see Money
+		 */
+		public long getRevenueCents() {
+			return revenueCents;
+		}
+
+		/**
+		 * @param int productID - the product to look up
+		 * @return ProductSales the product's sales, null if it was not sold
+		 */
+		public ProductSales getProductSales(int productID) {
+			return products.get(productID);
+		}
+
+		/**
+		 * @return List<ProductSales> every product sold, highest revenue first
+		 */
+		public List<ProductSales> getProductSales() {
+			ArrayList<ProductSales> sold = products.values();
+			sold.sort((a, b) -> a.revenueCents != b.revenueCents ? Long.compare(b.revenueCents, a.revenueCents)
+					: Integer.compare(a.productID, b.productID));
+			return sold;
+		}
+	}
+
+	// Units and revenue of one product.
+	public static class ProductSales {
+		private final int productID;
+		private long unitsSold;
+		private long revenueCents;
+
+		private ProductSales(int productID) {
+			this.productID = productID;
+		}
+
+		public int getProductID() {
+			return productID;
+		}
+
+		public long getUnitsSold() {
+			return unitsSold;
+		}
+
+		/**
+		 * @return long revenue in cents, see Money
+		 */
+		public long getRevenueCents() {
+			return revenueCents;
+		}
+	}
+}
@@ -0,0 +1,89 @@
+import static org.junit.Assert.*;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SalesTests {
+    /**
+     * Covers the daily and monthly sales reports.
+     */
+    private SalesRollup sales;
+    private Product coke;
+    private Product chips;
+    private ZonedDateTime monday;
+
+    @Before
+    public void setUp() {
+        sales = new SalesRollup(ZoneId.of("America/Chicago"));
+        coke = new Product("Coke", 12345, 10, 1.99, 5);
+        chips = new Product("Chips", 12346, 10, 3.50, 5);
+        monday = ZonedDateTime.parse("2023-10-02T09:00:00-05:00[America/Chicago]");
+    }
+
+    private Transaction sale(ZonedDateTime date, LineItem... items) {
+        ArrayList<LineItem> lineItems = new ArrayList<>();
+        long totalCents = 0;
+        int totalProducts = 0;
+        for (LineItem item : items) {
+            lineItems.add(item);
+            totalCents += item.getPriceCents();
+            totalProducts += item.getQuantity();
+        }
+        return Transaction.ofCents(100, lineItems, totalProducts, totalCents, date);
+    }
+
+    @Test
+    public void testSalesAreRolledUpByDay() {
+        sales.addTransaction(sale(monday, new LineItem(coke, 2), new LineItem(chips, 1)));
+        sales.addTransaction(sale(monday.plusHours(3), new LineItem(coke, 1)));
+        sales.addTransaction(sale(monday.plusDays(1), new LineItem(chips, 4)));
+        // 03:30 UTC on Tuesday is still Monday evening in Chicago
+        sales.addTransaction(sale(ZonedDateTime.parse("2023-10-03T03:30:00Z[UTC]"), new LineItem(coke, 1)));
+
+        SalesRollup.SalesTotals day = sales.getSales(LocalDate.of(2023, 10, 2));
+        assertEquals(3, day.getTransactionCount());
+        assertEquals(5, day.getUnitsSold());
+        assertEquals(4 * 199 + 350, day.getRevenueCents());
+        assertEquals(4, day.getProductSales(coke.getProductID()).getUnitsSold());
+        assertEquals("Products are listed by revenue.", coke.getProductID(),
+                day.getProductSales().get(0).getProductID());
+
+        SalesRollup.SalesTotals month = sales.getSales(LocalDate.of(2023, 10, 1), LocalDate.of(2023, 10, 31));
+        assertEquals(4, month.getTransactionCount());
+        assertEquals(5 * 350, month.getProductSales(chips.getProductID()).getRevenueCents());
+        assertEquals(0, sales.getSales(LocalDate.of(2023, 9, 30)).getTransactionCount());
+    }
+
+    @Test
+    public void testFinalizeCartUpdatesSales() {
+        GroceryStore store = GroceryStore.instance();
+        Member shopper = new Member("Sales Shopper", "1 Report St.", "612-555-0199");
+        store.addMember(shopper);
+        Product milk = new Product("Sales Milk", 88201, 2, 2.49, 50);
+        store.addProductToCatalog(milk);
+        LocalDate today = LocalDate.now();
+        long before = store.getSales(today, today).getRevenueCents();
+
+        store.openCart("sales", shopper.getMemberID());
+        store.addProductToCart("sales", milk.getProductID(), 3);
+        store.finalizeCart("sales", 20.0);
+
+        SalesRollup.SalesTotals after = store.getSales(today, today);
+        assertEquals(before + 747, after.getRevenueCents());
+        assertEquals(3, after.getProductSales(milk.getProductID()).getUnitsSold());
+    }
+
+    @Test
+    public void testTestEnvironmentSalesAreReported() {
+        GroceryStore store = GroceryStore.instance();
+        store.clear();
+        store.createTestEnvironment();
+        LocalDate today = LocalDate.now();
+        assertEquals("Every generated sale should be in the sales totals.", 10,
+                store.getSales(today, today).getTransactionCount());
+        store.clear();
+    }
+}
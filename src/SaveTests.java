@@ -0,0 +1,273 @@
+import static org.junit.Assert.*;
+import java.io.ByteArrayInputStream;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SaveTests {
+    /**
+     * Covers use case 13, 14: Saving and retrieving the store.
+     */
+    private MemberList members;
+    private ProductList products;
+    private ShipmentList shipments;
+    private TransactionList transactions;
+    private Member member;
+    private Product coke;
+
+    @Before
+    public void setUp() {
+        members = new MemberList();
+        products = new ProductList();
+        shipments = new ShipmentList();
+        transactions = new TransactionList();
+
+        member = new Member("Preston", "123 Other St. NE", "612-098-7654");
+        members.addMember(member);
+        coke = new Product("Coke", 12345, 10, 1.99, 5);
+        products.addProduct(coke);
+        shipments.addProductOrder(coke, 20);
+        ArrayList<LineItem> lineItems = new ArrayList<>();
+        lineItems.add(new LineItem(coke, 3));
+        transactions.addTransaction(new Transaction(member.getMemberID(), lineItems, 3, 5.97));
+    }
+
+    @Test
+    public void testBinarySnapshotRoundTrip() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinarySnapshot.write(out, members, products, shipments, transactions);
+
+        MemberList loadedMembers = new MemberList();
+        ProductList loadedProducts = new ProductList();
+        ShipmentList loadedShipments = new ShipmentList();
+        TransactionList loadedTransactions = new TransactionList();
+        BinarySnapshot.read(new ByteArrayInputStream(out.toByteArray()), loadedMembers, loadedProducts,
+                loadedShipments, loadedTransactions);
+
+        assertEquals("Preston", loadedMembers.getMember(member.getMemberID()).getMemberName());
+        Product loadedCoke = loadedProducts.getProduct(12345);
+        assertEquals("Coke", loadedCoke.getProductName());
+        assertEquals(5, loadedCoke.getCurrentStock());
+        assertEquals(20, loadedShipments.getOrder(12345).getQuantity());
+
+        Transaction loaded = loadedTransactions.get(0);
+        assertEquals(5.97, loaded.getTotal(), 0.0);
+        assertEquals(transactions.get(0).getDateOfSale().toInstant(), loaded.getDateOfSale().toInstant());
+        assertSame("Line items should be linked to the catalog product.", loadedCoke,
+                loaded.lineItemList.get(0).getProduct());
+    }
+
+    @Test
+    public void testMappedReaderParsesFields() throws IOException {
+        File file = File.createTempFile("grocery_store", ".txt");
+        file.deleteOnExit();
+        try (FileWriter writer = new FileWriter(file)) {
+            writer.write("Product|Coke|12345|10|1.99|5|99999999999999999|92233720368547758\n\n"
+                    + "Transaction|100|Coke|12345|10|1.99|5|3|5.97|3|5.97*\n");
+        }
+        try (MappedRecordReader reader = new MappedRecordReader(file)) {
+            assertTrue(reader.nextRecord());
+            assertEquals(1, reader.nextKeyword(new String[] { "member", "product" }));
+            assertEquals("Coke", reader.nextString());
+            assertEquals(12345, reader.nextInt());
+            assertEquals(10, reader.nextInt());
+            assertEquals(199L, reader.nextCents());
+            assertEquals(5, reader.nextInt());
+            assertEquals("Amounts too large for cents should not wrap around.", Long.MAX_VALUE, reader.nextCents());
+            assertEquals(9223372036854775800L, reader.nextCents());
+            assertFalse(reader.hasMoreFields());
+
+            assertTrue("Blank lines are still records.", reader.nextRecord());
+            assertFalse(reader.hasMoreFields());
+
+            assertTrue(reader.nextRecord());
+            assertEquals(-1, reader.nextKeyword(new String[] { "member", "product" }));
+            assertEquals("Transaction", reader.lastField());
+            assertFalse(reader.nextRecord());
+        }
+    }
+
+    @Test
+    public void testJournalRecovery() throws IOException {
+        GroceryStore store = GroceryStore.instance();
+        File directory = Files.createTempDirectory("grocery_journal").toFile();
+        assertTrue(store.openJournal(directory));
+
+        Member shopper = new Member("Journal Shopper", "1 Log St.", "612-555-0100");
+        store.addMember(shopper);
+        Product milk = new Product("Journal Milk", 88001, 2, 3.49, 50);
+        store.addProductToCatalog(milk);
+        assertTrue(store.checkpoint());
+        store.updatePrice(88001, 3.99);
+        store.openCart("journal", shopper.getMemberID());
+        store.addProductToCart("journal", 88001, 4);
+        store.finalizeCart("journal", 100.0);
+
+        // a record cut short by a crash is dropped
+        store.closeJournal();
+        File journal = directory.listFiles((dir, name) -> name.endsWith(".log"))[0];
+        try (FileOutputStream torn = new FileOutputStream(journal, true)) {
+            torn.write(new byte[] { 5, 0, 0, 1 });
+        }
+
+        store.clear();
+        assertTrue(store.openJournal(directory));
+        Product recovered = store.getProduct(88001);
+        assertEquals("The sale should be replayed.", 46, recovered.getCurrentStock());
+        assertEquals(3.99, recovered.getPrice(), 0.0);
+        assertEquals("Journal Shopper", store.retrieveMembersByName("journal shopper").get(0).getMemberName());
+        store.closeJournal();
+    }
+
+    @Test
+    public void testRecoveryAfterInterruptedCheckpoint() throws IOException {
+        GroceryStore store = GroceryStore.instance();
+        store.clear();
+        File directory = Files.createTempDirectory("grocery_journal").toFile();
+        assertTrue(store.openJournal(directory)); // checkpoint-1 and journal-1
+        store.addProductToCatalog(new Product("Before Checkpoint", 88011, 2, 1.00, 10));
+
+        // the next checkpoint starts journal-2 but cannot write checkpoint-2
+        assertTrue(new File(directory, "checkpoint-2.tmp").mkdir());
+        assertFalse(store.checkpoint());
+        store.addProductToCatalog(new Product("After Checkpoint", 88012, 2, 1.00, 10));
+        store.closeJournal();
+
+        for (int recovery = 1; recovery <= 2; recovery++) {
+            store.clear();
+            assertTrue(store.openJournal(directory));
+            assertNotNull("Recovery " + recovery + " should keep the checkpointed product.", store.getProduct(88011));
+            assertNotNull("Recovery " + recovery + " should keep the journaled product.", store.getProduct(88012));
+            store.closeJournal();
+        }
+    }
+
+    @Test
+    public void testRecoveryFromOlderJournalVersion() throws IOException {
+        GroceryStore store = GroceryStore.instance();
+        store.clear();
+        File directory = Files.createTempDirectory("grocery_journal").toFile();
+        assertTrue(store.openJournal(directory)); // checkpoint-1 and journal-1
+        store.addProductToCatalog(new Product("Old Journal Tea", 88021, 2, 1.00, 10));
+        store.closeJournal();
+
+        // journal-2 written by a store that kept prices as doubles, holding one price change
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream payload = new DataOutputStream(bytes);
+        payload.writeInt(88021);
+        payload.writeDouble(2.50);
+        CRC32 crc = new CRC32();
+        crc.update(4);
+        crc.update(bytes.toByteArray());
+        try (DataOutputStream old = new DataOutputStream(new FileOutputStream(new File(directory, "journal-2.log")))) {
+            old.writeInt(StoreJournal.MAGIC);
+            old.writeShort(1);
+            old.writeByte(4);
+            old.writeInt(bytes.size());
+            bytes.writeTo(old);
+            old.writeInt((int) crc.getValue());
+        }
+
+        for (int recovery = 1; recovery <= 2; recovery++) {
+            store.clear();
+            assertTrue(store.openJournal(directory));
+            Product tea = store.getProduct(88021);
+            assertNotNull("Recovery " + recovery + " should keep the checkpointed product.", tea);
+            assertEquals("Recovery " + recovery + " should keep the old price change.", 2.50, tea.getPrice(), 0.0);
+            assertTrue("The old journal should be checkpointed.", new File(directory, "checkpoint-3.bin").exists());
+            assertFalse(new File(directory, "journal-2.log").exists());
+            store.closeJournal();
+        }
+    }
+
+    @Test
+    public void testSaveKeepsStockReservedInOpenCarts() throws IOException {
+        GroceryStore store = GroceryStore.instance();
+        store.clear();
+        Member shopper = new Member("Saving Shopper", "2 Disk Rd.", "612-555-0101");
+        store.addMember(shopper);
+        store.addProductToCatalog(new Product("Reserved Soup", 88111, 4, 1.50, 30));
+        store.openCart("saving", shopper.getMemberID());
+        assertTrue(store.addProductToCart("saving", 88111, 5));
+
+        Path directory = Files.createTempDirectory("grocery_save");
+        for (int format : new int[] { GroceryStore.TEXT_FORMAT, GroceryStore.BINARY_FORMAT }) {
+            Path path = directory.resolve("store" + format);
+            assertTrue(store.save(path, format));
+            assertEquals("The cart should still hold its stock.", 25, store.getProduct(88111).getCurrentStock());
+        }
+        store.closeCart("saving");
+        for (int format : new int[] { GroceryStore.TEXT_FORMAT, GroceryStore.BINARY_FORMAT }) {
+            store.clear();
+            assertTrue(store.open(directory.resolve("store" + format)));
+            assertEquals("Unsold stock should be saved.", 30, store.getProduct(88111).getCurrentStock());
+        }
+    }
+
+    @Test
+    public void testHeadlessTextSaveAndOpen() throws IOException {
+        GroceryStore store = GroceryStore.instance();
+        Product bread = new Product("Headless Bread", 88101, 4, 2.25, 30);
+        store.addProductToCatalog(bread);
+        Path path = Files.createTempDirectory("grocery_save").resolve("store.txt");
+        Files.write(path, "old save".getBytes());
+
+        assertTrue(store.save(path));
+        assertTrue("The old file should be replaced.", store.save(path));
+        assertEquals("Only the save should be left in the directory.", 1, path.getParent().toFile().list().length);
+
+        store.clear();
+        assertTrue(store.open(path));
+        Product loaded = store.getProduct(88101);
+        assertEquals("Headless Bread", loaded.getProductName());
+        assertEquals(2.25, loaded.getPrice(), 0.0);
+        assertEquals(30, loaded.getCurrentStock());
+    }
+
+    @Test
+    public void testParallelLoadMatchesSingleThreadLoad() throws IOException {
+        // big enough to be split into several chunks
+        Path directory = Files.createTempDirectory("grocery_load");
+        Path file = directory.resolve("large.txt");
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            for (int i = 0; i < 200; i++) {
+                writer.write("Member|Member " + i + "|" + (5000 + i) + "|" + i + " Main St.|612-555-0000|2020-01-01T10:00-06:00[America/Chicago]\n");
+            }
+            for (int i = 0; i < 1000; i++) {
+                writer.write("Product|Product " + i + "|" + (90000 + i) + "|5|1.25|100\n");
+            }
+            writer.write("Shipment|Product 7|90007|10\n");
+            for (int i = 0; i < 40000; i++) {
+                int product = i % 1000;
+                writer.write("Transaction|" + (5000 + i % 200) + "|Product " + product + "|" + (90000 + product)
+                        + "|5|1.25|100|2|2.5|4|5.0*" + (5000 + i % 200) + "|Product 1|90001|5|1.25|100|2|2.5|4|5.0*\n");
+            }
+        }
+        GroceryStore store = GroceryStore.instance();
+
+        store.clear();
+        assertTrue(store.open(file.toFile(), 1));
+        Path single = directory.resolve("single.txt");
+        assertTrue(store.save(single));
+
+        store.clear();
+        assertTrue(store.open(file.toFile(), 4));
+        Path parallel = directory.resolve("parallel.txt");
+        assertTrue(store.save(parallel));
+
+        List<String> lines = Files.readAllLines(parallel);
+        assertEquals(200 + 1000 + 1 + 40000, lines.size());
+        assertEquals(Files.readAllLines(single), lines);
+    }
+}
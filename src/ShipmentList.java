@@ -1,43 +1,91 @@
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeMap;
 
-// Collection class for holding Product objects. This class is used
-// To keep track of incoming shipments. Incoming products are kept track of
-// in the productsOnOrder ArrayList. 
+// Collection class for holding ProductOrder objects. This class is used
+// To keep track of incoming shipments. Each product has at most one pending
+// order, keyed by product ID, and repeat orders are merged into it.
+// Every method locks the list, since registers reorder products while checking out.
 
 public class ShipmentList {
-	
-    private ArrayList<Product> productsOnOrder =  new ArrayList<>();
-    private int totalOrders = 0;
 
-    public boolean getOrderStatus(String productName){
-        for(Product product : productsOnOrder){
-            if (product.getProductName().equals(productName)) {
+    private IntHashMap<ProductOrder> ordersByProductID = new IntHashMap<>();
+    private ArrayList<ProductOrder> orders = new ArrayList<>();
+    private TreeMap<Long, ProductOrder> ordersBySequence = new TreeMap<>(); // orders keeps no order, see removeProductOrder
+    private long nextSequence = 1; // listing sequence of the next order, see getPage
+
+    public synchronized boolean getOrderStatus(String productName){
+        for(ProductOrder order : orders){
+            if (order.getProduct().getProductName().equals(productName)) {
                 return true;
             }
         }
         return false;
     }
 
-    public boolean getOrderStatus(int productID){
-        for(Product product : productsOnOrder){
-            if (product.getProductID() == productID) {
-                return true;
+    public synchronized boolean getOrderStatus(int productID){
+        return ordersByProductID.containsKey(productID);
+    }
+
+    /**
+     * Get method to get the pending order for a product
+     * @param int productID - the product ID of the order we are looking to find
+     * @return ProductOrder if found, null if the product is not on order.
+     *
+     */
+    public synchronized ProductOrder getOrder(int productID){
+        return ordersByProductID.get(productID);
+    }
+
+    /**
+     * Get method for the pending orders
+     * @return read only copy of every pending order, copied since registers keep ordering
+     *
+     */
+    public synchronized List<ProductOrder> getOrders(){
+        return Collections.unmodifiableList(new ArrayList<>(orders));
+    }
+
+    /**
+     * Gets one page of pending orders, in the order they were placed.
+     * @param long cursor - Page.FIRST, or the next cursor of the previous page
+     * @param int pageSize - the most orders to return
+     * @return Page of orders after the cursor
+     *
+     */
+    public synchronized Page<ProductOrder> getPage(long cursor, int pageSize){
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1.");
+        }
+        ArrayList<ProductOrder> page = new ArrayList<>(Math.min(pageSize, orders.size()));
+        boolean more = false;
+        for (ProductOrder order : ordersBySequence.tailMap(cursor, false).values()) {
+            if (page.size() == pageSize) {
+                more = true;
+                break;
             }
+            page.add(order);
         }
-        return false;
+        long next = page.isEmpty() ? cursor : page.get(page.size() - 1).getListSequence();
+        return new Page<>(page, next, more);
     }
-    
-    public ArrayList<Product> getProductsOnOrder() {
-    	return this.productsOnOrder;
+
+    public synchronized ArrayList<Product> getProductsOnOrder() {
+        ArrayList<Product> productsOnOrder = new ArrayList<>(orders.size());
+        for (ProductOrder order : orders) {
+            productsOnOrder.add(order.getProduct());
+        }
+    	return productsOnOrder;
     }
 
-    public int getTotalOrders() {
-        return totalOrders;
+    public synchronized int getTotalOrders() {
+        return orders.size();
     }
 
-    public Product get(int index){
+    public synchronized Product get(int index){
         try{
-            return productsOnOrder.get(index);
+            return orders.get(index).getProduct();
         }
         catch (IndexOutOfBoundsException e){
             System.out.println("Product out of bounds of the ProductsOnOrder array");
@@ -45,24 +93,89 @@ public class ShipmentList {
         }
     }
 
-    public boolean addProductOrder(Product product){
-        boolean success = productsOnOrder.add(product);
-        if (success) {
-            totalOrders++;
+    /**
+     * Orders the standard restock quantity of a product, 2x its minimum restock amount.
+     * If the product is already on order the pending order already covers it, so
+     * nothing more is added.
+     * @param Product product - the product to order.
+     * @return boolean success indicator
+     *
+     */
+    public synchronized boolean addProductOrder(Product product){
+        if (product == null) {
+            return false;
+        }
+        if (ordersByProductID.containsKey(product.getProductID())) {
+            return true;
+        }
+        return addProductOrder(product, product.getRestockAmount() * 2);
+    }
+
+    /**
+     * Orders a quantity of a product, adding it to the pending order if there is one.
+     * @param Product product - the product to order.
+     * @param int quantity - the quantity to order.
+     * @return boolean success indicator
+     *
+     */
+    public synchronized boolean addProductOrder(Product product, int quantity){
+        if (product == null || quantity <= 0) {
+            return false;
+        }
+        ProductOrder order = ordersByProductID.get(product.getProductID());
+        if (order != null) {
+            order.setQuantity(order.getQuantity() + quantity);
+            return true;
         }
-        return success;
+        order = new ProductOrder(product, quantity);
+        order.setPosition(orders.size());
+        order.setListSequence(nextSequence++);
+        orders.add(order);
+        ordersBySequence.put(order.getListSequence(), order);
+        ordersByProductID.put(product.getProductID(), order);
+        return true;
     }
 
-    public void removeProductOrder(int id){
-        boolean success = productsOnOrder.removeIf(product -> product.getProductID() == id);
-        if (success)
-            totalOrders--;
+    public synchronized void removeProductOrder(int id){
+        ProductOrder order = ordersByProductID.remove(id);
+        if (order == null)
+            return;
+        ordersBySequence.remove(order.getListSequence());
+        // move the last order into the removed slot so the removal is constant time
+        ProductOrder last = orders.remove(orders.size() - 1);
+        if (last != order) {
+            last.setPosition(order.getPosition());
+            orders.set(order.getPosition(), last);
+        }
+    }
+
+    /**
+     * Receives a delivery of a product: adds it to the product's stock and takes it off
+     * the pending order. If fewer arrived than were ordered, the rest stays on order.
+     * @param Product product - the product delivered.
+     * @param int quantity - the quantity delivered.
+     * @return int the quantity that was on order before the delivery, 0 if none
+     *
+     */
+    public synchronized int receive(Product product, int quantity){
+        product.updateStock(quantity);
+        ProductOrder order = ordersByProductID.get(product.getProductID());
+        if (order == null) {
+            return 0;
+        }
+        int ordered = order.getQuantity();
+        if (quantity < ordered) {
+            order.setQuantity(ordered - quantity);
+        } else {
+            removeProductOrder(product.getProductID());
+        }
+        return ordered;
     }
 
-    public void print(){
+    public synchronized void print(){
         System.out.println("Current Products on Order:");
-        for (Product product : productsOnOrder) {
-            product.print();
+        for (ProductOrder order : orders) {
+            order.print();
         }
     }
 }
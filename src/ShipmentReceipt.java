@@ -0,0 +1,183 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * ShipmentReceipt is the summary of a shipment manifest received with
+ * GroceryStore.processManifest. It has one line per product in the manifest, in the order
+ * the products first appear, with repeated lines for a product added together. Manifest
+ * lines that could not be read are kept as text, so they can be checked by hand.
+ */
+
+public class ShipmentReceipt {
+
+	// status of a line
+	public static final int RECEIVED = 0; // delivered as ordered, the order is cleared
+	public static final int SHORT = 1; // fewer delivered than ordered, the rest stays on order
+	public static final int OVER = 2; // more delivered than ordered, all of it was stocked
+	public static final int UNEXPECTED = 3; // not on order, stocked anyway
+	public static final int UNKNOWN = 4; // not in the catalog, not stocked
+	private static final String[] STATUS_NAMES = { "Received", "Short", "Over", "Unexpected", "Unknown" };
+
+	private final ArrayList<Line> lines = new ArrayList<>();
+	private final ArrayList<String> rejected = new ArrayList<>();
+
+	/**
+	 * @return List<Line> every product in the manifest, in manifest order
+	 */
+	public List<Line> getLines() {
+		return Collections.unmodifiableList(lines);
+	}
+
+	/**
+	 * @param int status - such as SHORT
+	 * @return List<Line> the lines with that status, in manifest order
+	 */
+	public List<Line> getLines(int status) {
+		ArrayList<Line> matching = new ArrayList<>();
+		for (Line line : lines) {
+			if (line.status == status) {
+				matching.add(line);
+			}
+		}
+		return matching;
+	}
+
+	/**
+	 * @param int status - such as SHORT
+	 * @return int the number of products with that status
+	 */
+	public int count(int status) {
+		int count = 0;
+		for (Line line : lines) {
+			if (line.status == status) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * @return long units added to stock, over every product that was stocked
+	 */
+	public long getUnitsStocked() {
+		long units = 0;
+		for (Line line : lines) {
+			if (line.status != UNKNOWN) {
+				units += line.delivered;
+			}
+		}
+		return units;
+	}
+
+	/**
+	 * @return List<String> manifest lines that could not be read, with their line numbers
+	 */
+	public List<String> getRejected() {
+		return Collections.unmodifiableList(rejected);
+	}
+
+	/**
+	 * Prints the totals, then every product that did not arrive exactly as ordered.
+	 */
+	public void print() {
+		System.out.println("------------ Shipment received: ------------");
+		System.out.println(lines.size() + " products, " + getUnitsStocked() + " units stocked");
+		for (int status = RECEIVED; status <= UNKNOWN; status++) {
+			System.out.println(String.format("%-11s %d", STATUS_NAMES[status] + ":", count(status)));
+		}
+		if (!rejected.isEmpty()) {
+			System.out.println(String.format("%-11s %d", "Unreadable:", rejected.size()));
+		}
+		StringBuilder details = new StringBuilder();
+		for (Line line : lines) {
+			if (line.status != RECEIVED) {
+				line.format(details).append('\n');
+			}
+		}
+		for (String text : rejected) {
+			details.append("Unreadable ").append(text).append('\n');
+		}
+		if (details.length() > 0) {
+			System.out.println("--------------------------------------------");
+			System.out.print(details);
+		}
+		System.out.println("--------------------------------------------\n");
+	}
+
+	Line addLine(int productID, int delivered) {
+		Line line = new Line(productID, delivered);
+		lines.add(line);
+		return line;
+	}
+
+	// adds a repeated manifest line to the product's line, false if the total would not fit in an int
+	boolean addDelivered(Line line, int delivered) {
+		if (line.delivered > Integer.MAX_VALUE - delivered) {
+			return false;
+		}
+		line.delivered += delivered;
+		return true;
+	}
+
+	void reject(String text) {
+		rejected.add(text);
+	}
+
+	// One product of the manifest.
+	public static class Line {
+		private final int productID;
+		private int delivered;
+		private String productName; // null if the product is not in the catalog
+		private int ordered; // quantity on order before the shipment
+		private int status = UNKNOWN;
+
+		private Line(int productID, int delivered) {
+			this.productID = productID;
+			this.delivered = delivered;
+		}
+
+		public int getProductID() {
+			return productID;
+		}
+
+		public String getProductName() {
+			return productName;
+		}
+
+		public int getOrdered() {
+			return ordered;
+		}
+
+		public int getDelivered() {
+			return delivered;
+		}
+
+		public int getStatus() {
+			return status;
+		}
+
+		// the product was found and its delivery stocked
+		void stocked(String productName, int ordered) {
+			this.productName = productName;
+			this.ordered = ordered;
+			if (ordered == 0) {
+				status = UNEXPECTED;
+			} else if (delivered < ordered) {
+				status = SHORT;
+			} else if (delivered > ordered) {
+				status = OVER;
+			} else {
+				status = RECEIVED;
+			}
+		}
+
+		public StringBuilder format(StringBuilder to) {
+			to.append(String.format("%-10s ", STATUS_NAMES[status])).append(productID);
+			if (productName != null) {
+				to.append(' ').append(productName);
+			}
+			return to.append(": ordered ").append(ordered).append(", delivered ").append(delivered);
+		}
+	}
+}
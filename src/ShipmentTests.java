@@ -1,4 +1,10 @@
 import static org.junit.Assert.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
 import org.junit.Before;
 import org.junit.Test;
 public class ShipmentTests {
@@ -31,4 +37,111 @@ public class ShipmentTests {
         boolean result = groceryStore.processShipment(product3.getProductID());
         assertTrue("Shipment should be processed back to store successfully.", result);
     }
+
+    @Test
+    public void testRepeatOrdersAreMerged(){
+        ShipmentList shipments = new ShipmentList();
+        shipments.addProductOrder(product2);
+        shipments.addProductOrder(product2);
+        shipments.addProductOrder(product1, 5);
+        shipments.addProductOrder(product1, 5);
+        assertEquals("Each product should have one pending order.", 2, shipments.getTotalOrders());
+        assertEquals("Standard reorders should not pile up.", 8, shipments.getOrder(product2.getProductID()).getQuantity());
+        assertEquals("Explicit quantities should add up.", 10, shipments.getOrder(product1.getProductID()).getQuantity());
+
+        List<ProductOrder> orders = shipments.getOrders();
+        shipments.removeProductOrder(product2.getProductID());
+        assertFalse("Removed order should no longer be pending.", shipments.getOrderStatus(product2.getProductID()));
+        assertEquals("Orders already handed out should not change.", 2, orders.size());
+        assertTrue("Other orders should be kept.", shipments.getOrderStatus(product1.getProductID()));
+    }
+
+    @Test
+    public void testManifestReceivesWholeDelivery(){
+        Product eggs = new Product("Manifest Eggs", 88501, 5, 2.99, 0);
+        Product flour = new Product("Manifest Flour", 88502, 3, 4.50, 0);
+        Product salt = new Product("Manifest Salt", 88503, 2, 0.99, 1);
+        Product sugar = new Product("Manifest Sugar", 88504, 4, 3.25, 0);
+        groceryStore.addProductToCatalog(eggs);
+        groceryStore.addProductToCatalog(flour);
+        groceryStore.addProductToCatalog(salt);
+        groceryStore.addProductToCatalog(sugar);
+        groceryStore.restockProduct(eggs); // 10 on order
+        groceryStore.restockProduct(flour); // 6 on order
+        groceryStore.restockProduct(sugar); // 8 on order
+
+        ShipmentReceipt receipt = groceryStore.processManifest(
+                new int[] { 88501, 88502, 88503, 88504, 99999, 88501, 88502 },
+                new int[] { 6, 2, 5, 9, 3, 4, 0 });
+
+        assertEquals("Repeated products should share a line.", 5, receipt.getLines().size());
+        assertEquals(1, receipt.count(ShipmentReceipt.RECEIVED));
+        assertEquals(1, receipt.count(ShipmentReceipt.SHORT));
+        assertEquals(1, receipt.count(ShipmentReceipt.OVER));
+        assertEquals(1, receipt.count(ShipmentReceipt.UNEXPECTED));
+        assertEquals(1, receipt.count(ShipmentReceipt.UNKNOWN));
+        assertEquals("The zero quantity should be rejected.", 1, receipt.getRejected().size());
+        assertEquals(26, receipt.getUnitsStocked());
+
+        assertEquals(10, eggs.getCurrentStock());
+        assertEquals(2, flour.getCurrentStock());
+        assertEquals(6, salt.getCurrentStock());
+        assertEquals(9, sugar.getCurrentStock());
+        assertFalse("Eggs arrived in full.", groceryStore.processShipment(88501));
+        assertTrue("The rest of the flour should stay on order.", groceryStore.processShipment(88502));
+        assertEquals(6, flour.getCurrentStock());
+    }
+
+    @Test
+    public void testManifestFile() throws IOException {
+        Product rice = new Product("Manifest Rice", 88511, 5, 1.99, 0);
+        groceryStore.addProductToCatalog(rice);
+        groceryStore.restockProduct(rice);
+        Path manifest = Files.createTempFile("manifest", ".txt");
+        Files.write(manifest, Arrays.asList("# truck 12", "88511|4", "", "88511, 6", "88511 rice", "88511"));
+
+        ShipmentReceipt receipt = groceryStore.processManifest(manifest);
+        assertEquals(1, receipt.getLines().size());
+        assertEquals(ShipmentReceipt.RECEIVED, receipt.getLines().get(0).getStatus());
+        assertEquals(10, rice.getCurrentStock());
+        assertEquals(Arrays.asList("line 5: 88511 rice", "line 6: 88511"), receipt.getRejected());
+        assertNull(groceryStore.processManifest(manifest.resolveSibling("missing-manifest.txt")));
+    }
+
+    @Test
+    public void testManifestIsJournaled() throws IOException {
+        File directory = Files.createTempDirectory("grocery_manifest").toFile();
+        assertTrue(groceryStore.openJournal(directory));
+        Product oats = new Product("Manifest Oats", 88521, 5, 3.99, 0);
+        groceryStore.addProductToCatalog(oats);
+        groceryStore.restockProduct(oats);
+        groceryStore.processManifest(new int[] { 88521 }, new int[] { 7 });
+        groceryStore.closeJournal();
+
+        groceryStore.clear();
+        assertTrue(groceryStore.openJournal(directory));
+        assertEquals("The manifest should be replayed.", 7, groceryStore.getProduct(88521).getCurrentStock());
+        assertTrue("The short delivery leaves 3 on order.", groceryStore.processShipment(88521));
+        assertEquals(10, groceryStore.getProduct(88521).getCurrentStock());
+        groceryStore.closeJournal();
+    }
+
+    @Test
+    public void testOrderPagingSurvivesRemovals(){
+        ShipmentList shipments = new ShipmentList();
+        for (int i = 0; i < 6; i++) {
+            shipments.addProductOrder(new Product("Ordered " + i, 88800 + i, 2, 1.0, 0), 5);
+        }
+        Page<ProductOrder> first = shipments.getPage(Page.FIRST, 3);
+        assertEquals(88802, first.getItems().get(2).getProductID());
+
+        // removing orders moves the last order into the hole, the pages must not notice
+        shipments.removeProductOrder(88800);
+        shipments.removeProductOrder(88803);
+        Page<ProductOrder> second = shipments.getPage(first.getNextCursor(), 3);
+        assertEquals(2, second.getItems().size());
+        assertEquals(88804, second.getItems().get(0).getProductID());
+        assertEquals(88805, second.getItems().get(1).getProductID());
+        assertFalse(second.hasMore());
+    }
 }
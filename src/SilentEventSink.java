@@ -0,0 +1,25 @@
+// StoreEventSink that drops every event, for stores run without a console such as
+// benchmarks and load tests.
+
+public class SilentEventSink implements StoreEventSink {
+
+	@Override
+	public void cartUpdated(Cart cart) {
+	}
+
+	@Override
+	public void shipmentProcessed(Product product, int quantity) {
+	}
+
+	@Override
+	public void priceUpdated(Product product) {
+	}
+
+	@Override
+	public void notice(String message) {
+	}
+
+	@Override
+	public void error(String message, Throwable cause) {
+	}
+}
@@ -0,0 +1,81 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Benchmark comparing the text save format with BinarySnapshot. Fills the store,
+ * then reports the save time, load time and file size of each format.
+ *
+ * Text saves are loaded once on one thread and once on every processor.
+ *
+ * Run with: java SnapshotBenchmark [transactions]
+ */
+
+public class SnapshotBenchmark {
+
+	private static final int MEMBERS = 10_000;
+	private static final int PRODUCTS = 20_000;
+	private static final int ITEMS_PER_TRANSACTION = 3;
+
+	public static void main(String[] args) throws IOException {
+		int transactionCount = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+		GroceryStore store = GroceryStore.instance();
+		fill(store, transactionCount);
+
+		File text = File.createTempFile("grocery_store", ".txt");
+		File binary = File.createTempFile("grocery_store", GroceryStore.BINARY_EXTENSION);
+		text.deleteOnExit();
+		binary.deleteOnExit();
+
+		System.out.printf("%d members, %d products, %d transactions%n", MEMBERS, PRODUCTS, transactionCount);
+		int threads = Runtime.getRuntime().availableProcessors();
+		System.out.printf("%-8s %-8s %-12s %-12s %-12s%n", "Format", "Threads", "Save (ms)", "Load (ms)", "Size (KB)");
+		report(store, "text", text, 1);
+		report(store, "text", text, threads);
+		report(store, "binary", binary, 1);
+	}
+
+	private static void report(GroceryStore store, String name, File file, int threads) {
+		long start = System.nanoTime();
+		store.save(file.toPath());
+		long saveTime = System.nanoTime() - start;
+
+		// load into an empty store, then put the original contents back for the next format
+		File original = new File(file.getPath() + ".orig");
+		store.save(original.toPath(), GroceryStore.BINARY_FORMAT);
+		store.clear();
+		start = System.nanoTime();
+		store.open(file, threads);
+		long loadTime = System.nanoTime() - start;
+		store.clear();
+		store.open(original);
+		original.delete();
+
+		System.out.printf("%-8s %-8d %-12d %-12d %-12d%n", name, threads, saveTime / 1_000_000, loadTime / 1_000_000,
+				file.length() / 1024);
+	}
+
+	private static void fill(GroceryStore store, int transactionCount) {
+		Random random = new Random(42);
+		for (int i = 0; i < MEMBERS; i++) {
+			store.addMember(new Member("Member " + i, i + " Main Street, Springfield, MN 55414", "612-555-" + (1000 + i % 9000)));
+		}
+		ArrayList<Product> catalog = new ArrayList<>(PRODUCTS);
+		for (int i = 0; i < PRODUCTS; i++) {
+			Product product = new Product("Product " + i, 100_000 + i, 1 + random.nextInt(20), 0.5 + random.nextInt(2000) / 100.0,
+					1_000_000);
+			catalog.add(product);
+			store.addProductToCatalog(product);
+		}
+		int firstMember = MemberList.getMemberIDCounter() - MEMBERS;
+		for (int i = 0; i < transactionCount; i++) {
+			store.openCart("benchmark", firstMember + random.nextInt(MEMBERS));
+			for (int j = 0; j < ITEMS_PER_TRANSACTION; j++) {
+				Product product = catalog.get(random.nextInt(PRODUCTS));
+				store.getCart("benchmark").addLineItemToCart(new LineItem(product, 1 + random.nextInt(5)));
+			}
+			store.finalizeCart("benchmark", Double.MAX_VALUE);
+		}
+	}
+}
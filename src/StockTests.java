@@ -0,0 +1,173 @@
+import static org.junit.Assert.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Before;
+import org.junit.Test;
+
+public class StockTests {
+    /**
+     * Covers use case 5 under load: many registers selling the same products at once
+     * must never sell more than is in stock.
+     */
+    private GroceryStore groceryStore = GroceryStore.instance();
+    private Member member;
+    private Product hotItem;
+
+    private static final int REGISTERS = 8;
+    private static int nextProductID = 77100; // every test gets a fresh product in the shared catalog
+
+    @Before
+    public void setUp() {
+        member = new Member("Stress Test", "1 Load St.", "612-000-0000");
+        groceryStore.addMember(member);
+        hotItem = new Product("Hot Item", nextProductID++, 1, 1.0, 1000);
+        groceryStore.addProductToCatalog(hotItem);
+    }
+
+    private void runRegisters(Runnable register) throws InterruptedException {
+        ArrayList<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < REGISTERS; i++) {
+            Thread thread = new Thread(register);
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    @Test
+    public void testTryDecrementNeverOversells() throws InterruptedException {
+        Product product = new Product("Limited Item", 77002, 1, 1.0, 10000);
+        AtomicInteger sold = new AtomicInteger();
+        runRegisters(() -> {
+            for (int i = 0; i < 5000; i++) {
+                if (product.tryDecrementStock(1 + i % 3)) {
+                    sold.addAndGet(1 + i % 3);
+                }
+            }
+        });
+        assertTrue("Stock should never go below zero.", product.getCurrentStock() >= 0);
+        assertEquals("Every unit sold should come out of stock.", 10000, sold.get() + product.getCurrentStock());
+    }
+
+    @Test
+    public void testTryDecrementFailsWhenInsufficient() {
+        Product product = new Product("Last One", 77003, 1, 1.0, 1);
+        assertFalse("Cannot take 2 when 1 is in stock.", product.tryDecrementStock(2));
+        assertEquals("Failed decrement should not change stock.", 1, product.getCurrentStock());
+        assertTrue("Can take the last one.", product.tryDecrementStock(1));
+        assertEquals(0, product.getCurrentStock());
+    }
+
+    @Test
+    public void testConcurrentCheckoutsNeverOversell() throws InterruptedException {
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger registerNumber = new AtomicInteger();
+        runRegisters(() -> {
+            String session = "stock-register-" + registerNumber.getAndIncrement();
+            for (int i = 0; i < 100; i++) {
+                groceryStore.openCart(session, member.getMemberID());
+                int quantity = 1 + i % 4;
+                if (groceryStore.addProductToCart(session, hotItem.getProductID(), quantity)) {
+                    groceryStore.finalizeCart(session, 100.0);
+                    sold.addAndGet(quantity);
+                } else {
+                    groceryStore.closeCart(session);
+                }
+            }
+        });
+        assertTrue("Stock should never go below zero.", hotItem.getCurrentStock() >= 0);
+        assertEquals("Every unit sold should come out of stock.", 1000, sold.get() + hotItem.getCurrentStock());
+    }
+
+    @Test
+    public void testClosedCartReturnsReservedStock() {
+        groceryStore.openCart("stock-cancel", member.getMemberID());
+        groceryStore.addProductToCart("stock-cancel", hotItem.getProductID(), 10);
+        assertEquals("Items in a cart are reserved.", 990, hotItem.getCurrentStock());
+        groceryStore.closeCart("stock-cancel");
+        assertEquals("Closing the cart returns the reserved stock.", 1000, hotItem.getCurrentStock());
+    }
+
+    @Test
+    public void testLowStockTrackerOrdersByShortfall() {
+        ProductList catalog = new ProductList();
+        Product plenty = new Product("Plenty", 77201, 5, 1.0, 50);
+        Product low = new Product("Low", 77202, 5, 1.0, 4);
+        Product empty = new Product("Empty", 77203, 8, 1.0, 0);
+        Product atRestock = new Product("At Restock", 77204, 3, 1.0, 3);
+        catalog.addProduct(plenty);
+        catalog.addProduct(low);
+        catalog.addProduct(empty);
+        catalog.addProduct(atRestock);
+        LowStockTracker lowStock = catalog.getLowStock();
+
+        assertEquals(3, lowStock.size());
+        assertEquals(List.of(empty, low, atRestock), lowStock.getAll());
+        assertEquals(List.of(empty), lowStock.topUrgent(1));
+
+        plenty.updateStock(-48); // 2 left of 5, now more urgent than low
+        assertEquals(List.of(empty, plenty, low), lowStock.topUrgent(3));
+        empty.updateStock(20);
+        atRestock.setRestockAmount(1);
+        assertEquals("Restocked products should leave the tracker.", List.of(plenty, low), lowStock.getAll());
+    }
+
+    @Test
+    public void testLowStockTrackerMatchesCatalogUnderConcurrentChanges() throws InterruptedException {
+        ProductList catalog = new ProductList();
+        Product[] items = new Product[200];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = new Product("Item " + i, 77300 + i, 1 + i % 20, 1.0, 40);
+            catalog.addProduct(items[i]);
+        }
+        AtomicInteger seed = new AtomicInteger();
+        runRegisters(() -> {
+            Random random = new Random(seed.incrementAndGet());
+            for (int i = 0; i < 20000; i++) {
+                Product item = items[random.nextInt(items.length)];
+                if (random.nextBoolean()) {
+                    item.tryDecrementStock(1 + random.nextInt(5));
+                } else {
+                    item.updateStock(1 + random.nextInt(5));
+                }
+            }
+        });
+
+        List<Product> all = catalog.getLowStock().getAll();
+        int expected = 0;
+        for (Product item : items) {
+            if (LowStockTracker.needsRestock(item)) {
+                expected++;
+                assertTrue(item.getProductName() + " should be tracked.", all.contains(item));
+            }
+        }
+        assertEquals(expected, all.size());
+        for (int i = 1; i < all.size(); i++) {
+            Product before = all.get(i - 1);
+            Product after = all.get(i);
+            assertTrue("Most urgent first.", before.getRestockAmount() - before.getCurrentStock()
+                    >= after.getRestockAmount() - after.getCurrentStock());
+        }
+    }
+
+    @Test
+    public void testScanningRestocksOnlyLowProducts() {
+        Product stocked = new Product("Well Stocked", nextProductID++, 5, 1.0, 100);
+        Product scarce = new Product("Scarce", nextProductID++, 5, 1.0, 7);
+        groceryStore.addProductToCatalog(stocked);
+        groceryStore.addProductToCatalog(scarce);
+        groceryStore.openCart("stock-restock", member.getMemberID());
+        groceryStore.addProductToCart("stock-restock", stocked.getProductID(), 1);
+        groceryStore.addProductToCart("stock-restock", scarce.getProductID(), 3);
+        groceryStore.closeCart("stock-restock");
+
+        assertFalse("A product with plenty of stock should not be ordered.",
+                groceryStore.processShipment(stocked.getProductID()));
+        assertTrue("A product that ran low should be ordered.", groceryStore.processShipment(scarce.getProductID()));
+        assertFalse(groceryStore.getLowStock(Integer.MAX_VALUE).contains(scarce));
+    }
+}
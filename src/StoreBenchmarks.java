@@ -0,0 +1,526 @@
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Benchmarks for the store's hot paths at data sizes from 1,000 to 1,000,000:
+ * product lookups by ID and name, member lookups, checkout, transactions by date,
+ * and saving and opening the store. Each benchmark is set up once per size, run for
+ * a few warmup rounds and then timed; the best timed round is reported in nanoseconds
+ * per operation, like ProductLookupBenchmark.
+ *
+ * Results can be written to a baseline file and later runs compared against it, so a
+ * change can be checked for regressions. The run fails when a benchmark is slower than
+ * the baseline by more than the tolerance.
+ *
+ * Run with: java -Xmx4g StoreBenchmarks [options]
+ *   --sizes 1000,10000       data sizes to run, default 1000,10000,100000,1000000
+ *   --only name,name         benchmarks to run, default all
+ *   --baseline FILE          compare against a baseline file
+ *   --write-baseline FILE    write the results as a baseline file
+ *   --tolerance PERCENT      slowdown allowed before a result counts as a regression, default 10
+ */
+
+public class StoreBenchmarks {
+
+	private static final int[] DEFAULT_SIZES = { 1_000, 10_000, 100_000, 1_000_000 };
+	private static final int ITEMS_PER_TRANSACTION = 3;
+
+	public static void main(String[] args) throws IOException {
+		int[] sizes = DEFAULT_SIZES;
+		List<String> only = null;
+		Path baseline = null;
+		Path writeBaseline = null;
+		double tolerance = 10;
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+			case "--sizes":
+				String[] parts = args[++i].split(",");
+				sizes = new int[parts.length];
+				for (int k = 0; k < parts.length; k++) {
+					sizes[k] = Integer.parseInt(parts[k].trim());
+				}
+				break;
+			case "--only":
+				only = List.of(args[++i].split(","));
+				break;
+			case "--baseline":
+				baseline = Paths.get(args[++i]);
+				break;
+			case "--write-baseline":
+				writeBaseline = Paths.get(args[++i]);
+				break;
+			case "--tolerance":
+				tolerance = Double.parseDouble(args[++i]);
+				break;
+			default:
+				System.out.println("Unknown option " + args[i]);
+				System.exit(2);
+			}
+		}
+
+		Map<String, Double> expected = baseline == null ? new LinkedHashMap<>() : readBaseline(baseline);
+		Map<String, Double> results = new LinkedHashMap<>();
+		int regressions = 0;
+		System.out.printf("%-20s %-10s %-14s %-14s %-10s%n", "Benchmark", "Size", "ns/op", "Baseline", "Change");
+		for (Benchmark benchmark : benchmarks()) {
+			if (only != null && !only.contains(benchmark.name)) {
+				continue;
+			}
+			for (int size : sizes) {
+				double nanosPerOp = benchmark.measure(size);
+				String key = benchmark.name + " " + size;
+				results.put(key, nanosPerOp);
+				Double before = expected.get(key);
+				if (before == null) {
+					System.out.printf("%-20s %-10d %-14.1f%n", benchmark.name, size, nanosPerOp);
+				} else {
+					double change = (nanosPerOp - before) / before * 100;
+					boolean regressed = change > tolerance;
+					if (regressed) {
+						regressions++;
+					}
+					System.out.printf("%-20s %-10d %-14.1f %-14.1f %+8.1f%%%s%n", benchmark.name, size, nanosPerOp, before,
+							change, regressed ? "  SLOWER" : "");
+				}
+			}
+		}
+
+		if (writeBaseline != null) {
+			writeBaseline(writeBaseline, results);
+			System.out.println("Baseline written to " + writeBaseline);
+		}
+		if (regressions > 0) {
+			System.out.println(regressions + " benchmark(s) slower than the baseline by more than " + tolerance + "%.");
+			System.exit(1);
+		}
+	}
+
+	private static List<Benchmark> benchmarks() {
+		List<Benchmark> benchmarks = new ArrayList<>();
+		benchmarks.add(new ProductByID());
+		benchmarks.add(new ProductByName());
+		benchmarks.add(new ProductSearch());
+		benchmarks.add(new MemberByID());
+		benchmarks.add(new Checkout());
+		benchmarks.add(new TransactionsByDate());
+		benchmarks.add(new Save(GroceryStore.TEXT_FORMAT));
+		benchmarks.add(new Save(GroceryStore.BINARY_FORMAT));
+		benchmarks.add(new Open(GroceryStore.TEXT_FORMAT));
+		benchmarks.add(new Open(GroceryStore.BINARY_FORMAT));
+		return benchmarks;
+	}
+
+	// Baseline files hold one "name size ns/op" line per result. Lines starting with # are comments.
+	private static Map<String, Double> readBaseline(Path file) throws IOException {
+		Map<String, Double> baseline = new LinkedHashMap<>();
+		for (String line : Files.readAllLines(file)) {
+			line = line.trim();
+			if (line.isEmpty() || line.startsWith("#")) {
+				continue;
+			}
+			String[] fields = line.split("\\s+");
+			baseline.put(fields[0] + " " + fields[1], Double.parseDouble(fields[2]));
+		}
+		return baseline;
+	}
+
+	private static void writeBaseline(Path file, Map<String, Double> results) throws IOException {
+		try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+			writer.write("# StoreBenchmarks baseline: benchmark size ns/op\n");
+			writer.write("# " + System.getProperty("java.vm.name") + " " + System.getProperty("java.version") + ", "
+					+ Runtime.getRuntime().availableProcessors() + " processors\n");
+			for (Map.Entry<String, Double> result : results.entrySet()) {
+				writer.write(result.getKey() + " " + String.format("%.1f", result.getValue()) + "\n");
+			}
+		}
+	}
+
+	/**
+	 * One benchmark. setUp builds the data for a size and run performs one round of the
+	 * timed operations, adding their results to checksum so the work is not optimized away.
+	 */
+	private abstract static class Benchmark {
+		private final String name;
+		private final int warmupRounds;
+		private final int rounds;
+		long checksum;
+
+		Benchmark(String name, int warmupRounds, int rounds) {
+			this.name = name;
+			this.warmupRounds = warmupRounds;
+			this.rounds = rounds;
+		}
+
+		abstract void setUp(int size) throws IOException;
+
+		// runs one round and returns the number of operations it performed
+		abstract int run() throws IOException;
+
+		void tearDown() throws IOException {
+		}
+
+		/**
+		 * @param int size - the data size to run at
+		 * @return double nanoseconds per operation of the best timed round
+		 */
+		double measure(int size) throws IOException {
+			setUp(size);
+			double best = Double.MAX_VALUE;
+			try {
+				for (int round = 0; round < warmupRounds + rounds; round++) {
+					long start = System.nanoTime();
+					int operations = run();
+					double perOperation = (System.nanoTime() - start) / (double) operations;
+					if (round >= warmupRounds) {
+						best = Math.min(best, perOperation);
+					}
+				}
+			} finally {
+				tearDown();
+			}
+			if (checksum == 42) {
+				System.out.println(); // keeps the work from being optimized away
+			}
+			return best;
+		}
+	}
+
+	private static class ProductByID extends Benchmark {
+		private static final int LOOKUPS = 1_000_000;
+		private ProductList catalog;
+		private int[] queries;
+
+		ProductByID() {
+			super("productById", 3, 5);
+		}
+
+		@Override
+		void setUp(int size) {
+			catalog = catalog(size);
+			Random random = new Random(size);
+			queries = new int[LOOKUPS];
+			for (int i = 0; i < LOOKUPS; i++) {
+				queries[i] = productID(random.nextInt(size));
+			}
+		}
+
+		@Override
+		int run() {
+			for (int id : queries) {
+				checksum += catalog.getProduct(id).getRestockAmount();
+			}
+			return LOOKUPS;
+		}
+	}
+
+	private static class ProductByName extends Benchmark {
+		private static final int LOOKUPS = 1_000_000;
+		private ProductList catalog;
+		private String[] queries;
+
+		ProductByName() {
+			super("productByName", 3, 5);
+		}
+
+		@Override
+		void setUp(int size) {
+			catalog = catalog(size);
+			Random random = new Random(size);
+			queries = new String[LOOKUPS];
+			for (int i = 0; i < LOOKUPS; i++) {
+				// typed names rarely match the catalog's case
+				queries[i] = productName(random.nextInt(size)).toLowerCase();
+			}
+		}
+
+		@Override
+		int run() {
+			for (String name : queries) {
+				checksum += catalog.getProduct(name).getRestockAmount();
+			}
+			return LOOKUPS;
+		}
+	}
+
+	// What a cashier types while looking for a product: the start of its number, with or
+	// without the start of the word "Product", asking for the first 10 suggestions.
+	private static class ProductSearch extends Benchmark {
+		private static final int SEARCHES = 100_000;
+		private static final int SUGGESTIONS = 10;
+		private ProductList catalog;
+		private String[] queries;
+
+		ProductSearch() {
+			super("productSearch", 3, 5);
+		}
+
+		@Override
+		void setUp(int size) {
+			catalog = catalog(size);
+			Random random = new Random(size);
+			queries = new String[SEARCHES];
+			for (int i = 0; i < SEARCHES; i++) {
+				String number = String.valueOf(random.nextInt(size));
+				String typed = number.substring(0, (number.length() + 1) / 2);
+				queries[i] = i % 2 == 0 ? typed : "prod " + typed;
+			}
+		}
+
+		@Override
+		int run() {
+			for (String query : queries) {
+				checksum += catalog.searchProducts(query, SUGGESTIONS).size();
+			}
+			return SEARCHES;
+		}
+	}
+
+	private static class MemberByID extends Benchmark {
+		private static final int LOOKUPS = 1_000_000;
+		private MemberList members;
+		private int[] queries;
+
+		MemberByID() {
+			super("memberById", 3, 5);
+		}
+
+		@Override
+		void setUp(int size) {
+			members = new MemberList();
+			int[] ids = new int[size];
+			for (int i = 0; i < size; i++) {
+				Member member = member(i);
+				members.addMember(member);
+				ids[i] = member.getMemberID();
+			}
+			Random random = new Random(size);
+			queries = new int[LOOKUPS];
+			for (int i = 0; i < LOOKUPS; i++) {
+				queries[i] = ids[random.nextInt(size)];
+			}
+		}
+
+		@Override
+		int run() {
+			for (int id : queries) {
+				checksum += members.getMember(id).getMemberID();
+			}
+			return LOOKUPS;
+		}
+	}
+
+	// Opens a cart, adds three products and finalizes it. The store runs with a
+	// SilentEventSink, so the cart printouts do not dominate the timing.
+	private static class Checkout extends Benchmark {
+		private static final int CHECKOUTS = 20_000;
+		private final GroceryStore store = GroceryStore.instance();
+		private int[] memberIDs;
+		private int productCount;
+		private Random random;
+
+		Checkout() {
+			super("checkout", 3, 5);
+		}
+
+		@Override
+		void setUp(int size) {
+			memberIDs = fillStore(store, size, size, 0);
+			productCount = size;
+			random = new Random(size);
+			store.setEventSink(new SilentEventSink());
+		}
+
+		@Override
+		int run() {
+			for (int i = 0; i < CHECKOUTS; i++) {
+				store.openCart("benchmark", memberIDs[random.nextInt(memberIDs.length)]);
+				for (int j = 0; j < ITEMS_PER_TRANSACTION; j++) {
+					store.addProductToCart("benchmark", productID(random.nextInt(productCount)), 1);
+				}
+				checksum += (long) store.finalizeCart("benchmark", Double.MAX_VALUE);
+			}
+			return CHECKOUTS;
+		}
+
+		@Override
+		void tearDown() {
+			store.setEventSink(new ConsoleEventSink());
+			store.clear();
+		}
+	}
+
+	// Transactions one minute apart, queried for random one hour windows.
+	private static class TransactionsByDate extends Benchmark {
+		private static final int QUERIES = 20_000;
+		private TransactionList transactions;
+		private ZonedDateTime first;
+		private int size;
+		private Random random;
+
+		TransactionsByDate() {
+			super("transactionsByDate", 3, 5);
+		}
+
+		@Override
+		void setUp(int size) {
+			this.size = size;
+			List<Product> catalog = catalog(100).getProductList();
+			transactions = new TransactionList();
+			first = ZonedDateTime.parse("2023-01-01T08:00:00-06:00[America/Chicago]");
+			random = new Random(size);
+			ArrayList<Transaction> added = new ArrayList<>(size);
+			for (int i = 0; i < size; i++) {
+				added.add(transaction(catalog, 100, random, first.plusMinutes(i)));
+			}
+			transactions.addTransactions(added);
+		}
+
+		@Override
+		int run() {
+			for (int i = 0; i < QUERIES; i++) {
+				ZonedDateTime start = first.plusMinutes(random.nextInt(size));
+				checksum += transactions.getTransactionsByDate(start, start.plusHours(1)).size();
+			}
+			return QUERIES;
+		}
+	}
+
+	// Saves a store of size transactions, with a tenth as many members and products.
+	private static class Save extends Benchmark {
+		private final GroceryStore store = GroceryStore.instance();
+		private final int format;
+		private Path file;
+
+		Save(int format) {
+			super(format == GroceryStore.BINARY_FORMAT ? "saveBinary" : "saveText", 1, 3);
+			this.format = format;
+		}
+
+		@Override
+		void setUp(int size) throws IOException {
+			fillStore(store, Math.max(size / 10, 100), Math.max(size / 10, 100), size);
+			file = Files.createTempFile("grocery_benchmark", format == GroceryStore.BINARY_FORMAT ? ".bin" : ".txt");
+		}
+
+		@Override
+		int run() {
+			if (!store.save(file, format)) {
+				throw new IllegalStateException("Save failed");
+			}
+			checksum += file.toFile().length();
+			return 1;
+		}
+
+		@Override
+		void tearDown() throws IOException {
+			store.clear();
+			Files.deleteIfExists(file);
+		}
+	}
+
+	// Opens a save of a store of size transactions into an empty store.
+	private static class Open extends Benchmark {
+		private final GroceryStore store = GroceryStore.instance();
+		private final int format;
+		private File file;
+
+		Open(int format) {
+			super(format == GroceryStore.BINARY_FORMAT ? "openBinary" : "openText", 1, 3);
+			this.format = format;
+		}
+
+		@Override
+		void setUp(int size) throws IOException {
+			fillStore(store, Math.max(size / 10, 100), Math.max(size / 10, 100), size);
+			Path path = Files.createTempFile("grocery_benchmark", format == GroceryStore.BINARY_FORMAT ? ".bin" : ".txt");
+			store.save(path, format);
+			file = path.toFile();
+		}
+
+		@Override
+		int run() {
+			store.clear();
+			if (!store.open(file)) {
+				throw new IllegalStateException("Open failed");
+			}
+			checksum += store.getProduct(productID(0)).getCurrentStock();
+			return 1;
+		}
+
+		@Override
+		void tearDown() {
+			store.clear();
+			file.delete();
+		}
+	}
+
+	private static int productID(int index) {
+		return 1_000_000 + index;
+	}
+
+	private static String productName(int index) {
+		return "Product " + index;
+	}
+
+	private static Member member(int index) {
+		return new Member("Member " + index, index + " Main Street, Springfield, MN 55414", "612-555-" + (1000 + index % 9000));
+	}
+
+	private static ProductList catalog(int size) {
+		ProductList catalog = new ProductList();
+		for (int i = 0; i < size; i++) {
+			catalog.addProduct(product(i));
+		}
+		return catalog;
+	}
+
+	private static Product product(int index) {
+		return new Product(productName(index), productID(index), 1 + index % 20, 0.5 + index % 2000 / 100.0,
+				Integer.MAX_VALUE / 2);
+	}
+
+	private static Transaction transaction(List<Product> catalog, int memberID, Random random, ZonedDateTime date) {
+		ArrayList<LineItem> lineItems = new ArrayList<>(ITEMS_PER_TRANSACTION);
+		long totalCents = 0;
+		for (int j = 0; j < ITEMS_PER_TRANSACTION; j++) {
+			LineItem lineItem = new LineItem(catalog.get(random.nextInt(catalog.size())), 1 + random.nextInt(5));
+			totalCents += lineItem.getPriceCents();
+			lineItems.add(lineItem);
+		}
+		return Transaction.ofCents(memberID, lineItems, ITEMS_PER_TRANSACTION, totalCents, date);
+	}
+
+	// Replaces the store's contents and returns the new members' IDs.
+	private static int[] fillStore(GroceryStore store, int memberCount, int productCount, int transactionCount) {
+		store.clear();
+		int[] memberIDs = new int[memberCount];
+		for (int i = 0; i < memberCount; i++) {
+			Member member = member(i);
+			store.addMember(member);
+			memberIDs[i] = member.getMemberID();
+		}
+		for (int i = 0; i < productCount; i++) {
+			store.addProductToCatalog(product(i));
+		}
+		Random random = new Random(transactionCount);
+		for (int i = 0; i < transactionCount; i++) {
+			store.openCart("benchmark", memberIDs[random.nextInt(memberCount)]);
+			Cart cart = store.getCart("benchmark");
+			for (int j = 0; j < ITEMS_PER_TRANSACTION; j++) {
+				cart.addProduct(store.getProduct(productID(random.nextInt(productCount))), 1 + random.nextInt(5));
+			}
+			store.finalizeCart("benchmark", Double.MAX_VALUE);
+		}
+		return memberIDs;
+	}
+}
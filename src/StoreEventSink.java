@@ -0,0 +1,51 @@
+/**
+ * StoreEventSink receives what GroceryStore has to tell the user while it works:
+ * the cart after each scan, processed shipments, price changes, and notices and errors.
+ * GroceryStore only emits events, so whether and where they are shown is up to the
+ * sink, see GroceryStore.setEventSink:
+ *
+ * ConsoleEventSink prints them right away, as the store always has.
+ * AsyncEventSink prints them in batches on a background thread.
+ * SilentEventSink drops them, for stores run without a console.
+ *
+ * Events are emitted from any register's thread, so sinks must be thread safe. The
+ * objects passed in are live store objects that may change as soon as the call returns.
+ */
+
+public interface StoreEventSink {
+
+	/**
+	 * A product was added to a cart.
+	 *
+	 * @param Cart cart - the cart after the change
+	 */
+	void cartUpdated(Cart cart);
+
+	/**
+	 * A shipment was received and added to the stock.
+	 *
+	 * @param Product product - the product after its stock was updated
+	 * @param int quantity - the quantity received
+	 */
+	void shipmentProcessed(Product product, int quantity);
+
+	/**
+	 * @param Product product - the product after its price was changed
+	 */
+	void priceUpdated(Product product);
+
+	/**
+	 * Something the user should know, such as a rejected scan.
+	 *
+	 * @param String message - the message to show
+	 */
+	void notice(String message);
+
+	/**
+	 * An operation failed.
+	 *
+	 * @param String message - what failed
+	 * @param Throwable cause - the exception behind it, may be null
+	 */
+	void error(String message, Throwable cause);
+}
@@ -0,0 +1,441 @@
+import java.io.*;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * StoreJournal is an append only write-ahead log of the changes made through GroceryStore,
+ * with periodic checkpoints. Each change is appended as a small record, so the cost of
+ * keeping the store durable grows with the number of changes instead of the size of the store.
+ *
+ * The journal directory holds numbered generations. checkpoint-N.bin is a BinarySnapshot of
+ * the store at the start of generation N, and journal-N.log holds the changes made during
+ * generation N. Taking a checkpoint starts generation N+1 and then deletes generation N.
+ * Recovery loads the newest complete checkpoint and replays every journal from its
+ * generation on, in order.
+ *
+ * Every record is a type byte, a payload length, the payload and a CRC32 of the type and
+ * payload. Replay stops at the first record that is cut short or fails its check, which is
+ * where the store stopped writing, and the journal is truncated there.
+ */
+
+public class StoreJournal implements Closeable {
+
+	public static final int MAGIC = 0x47534A4C; // "GSJL"
+	public static final int VERSION = 2; // records use the BinarySnapshot encodings of the same version
+	private static final int DOUBLE_PRICES_VERSION = 1; // still replayed
+	public static final int DEFAULT_CHECKPOINT_INTERVAL = 10_000; // records between checkpoints
+
+	// record types
+	private static final int ADD_MEMBER = 1;
+	private static final int REMOVE_MEMBER = 2;
+	private static final int ADD_PRODUCT = 3;
+	private static final int UPDATE_PRICE = 4;
+	private static final int SALE = 5;
+	private static final int ORDER = 6;
+	private static final int SHIPMENT = 7;
+	private static final int MANIFEST = 8;
+
+	private static final String CHECKPOINT_PREFIX = "checkpoint-";
+	private static final String CHECKPOINT_EXTENSION = ".bin";
+	private static final String JOURNAL_PREFIX = "journal-";
+	private static final String JOURNAL_EXTENSION = ".log";
+	private static final int HEADER_LENGTH = 6; // magic and version
+
+	private final File directory;
+	private final int checkpointInterval;
+	private final ReentrantLock lock = new ReentrantLock(); // held while a change is made and logged
+	private long generation;
+	private FileOutputStream file;
+	private DataOutputStream out;
+	private final ByteArrayOutputStream payload = new ByteArrayOutputStream(256);
+	private final DataOutputStream record = new DataOutputStream(payload);
+	private final CRC32 crc = new CRC32();
+	private int recordsSinceCheckpoint = 0;
+
+	/**
+	 * Constructor, nothing is read or written until recover is called
+	 *
+	 * @param File directory - directory holding the checkpoints and journals, created if missing
+	 * @param int checkpointInterval - number of records after which checkpointDue returns true
+	 */
+	public StoreJournal(File directory, int checkpointInterval) {
+		this.directory = directory;
+		this.checkpointInterval = checkpointInterval;
+	}
+
+	/**
+	 * Loads the newest checkpoint into the given lists, which should be empty, replays the
+	 * journal on top of it and opens the journal for appending.
+	 *
+	 * @return boolean true if the directory held a checkpoint or journal, false if it was empty
+	 * @throws IOException if the files cannot be read or the directory cannot be written
+	 */
+	public boolean recover(MemberList members, ProductList products, ShipmentList shipments,
+			TransactionList transactions) throws IOException {
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException("Cannot create journal directory " + directory + ".");
+		}
+		TreeSet<Long> checkpoints = generations(CHECKPOINT_PREFIX, CHECKPOINT_EXTENSION);
+		TreeSet<Long> journals = generations(JOURNAL_PREFIX, JOURNAL_EXTENSION);
+		boolean found = !checkpoints.isEmpty() || !journals.isEmpty();
+
+		long base = checkpoints.isEmpty() ? 0 : checkpoints.last(); // the checkpoint recovery starts from
+		generation = base;
+		if (!checkpoints.isEmpty()) {
+			try (InputStream in = new BufferedInputStream(new FileInputStream(checkpointFile(generation)), 1 << 16)) {
+				BinarySnapshot.read(in, members, products, shipments, transactions);
+			}
+		}
+		for (long journal : journals.tailSet(generation)) {
+			long goodLength = replay(journalFile(journal), members, products, shipments, transactions);
+			generation = journal;
+			if (goodLength < journalFile(journal).length()) {
+				// the store stopped in the middle of this record, nothing after it was written
+				try (RandomAccessFile torn = new RandomAccessFile(journalFile(journal), "rw")) {
+					torn.setLength(goodLength);
+				}
+				break;
+			}
+		}
+		// A checkpoint that was cut short leaves journals after the last checkpoint written,
+		// so only files older than that checkpoint are no longer needed.
+		deleteBefore(base);
+		if (journalFile(generation).length() >= HEADER_LENGTH && journalVersion(journalFile(generation)) != VERSION) {
+			// records of this version cannot be appended to an older journal, so start the
+			// next generation from a checkpoint; the older files are kept until it is written
+			checkpoint(members, products, shipments, transactions);
+			return found;
+		}
+		openJournal();
+		return found;
+	}
+
+	/**
+	 * Locks the journal so a change and its record are made together. Every change must be
+	 * made between lock and unlock, so records are written in the same order as the changes.
+	 */
+	public void lock() {
+		lock.lock();
+	}
+
+	public void unlock() {
+		lock.unlock();
+	}
+
+	public void memberAdded(Member member) {
+		try {
+			BinarySnapshot.writeMember(record, member);
+			append(ADD_MEMBER);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	public void memberRemoved(int memberID) {
+		try {
+			record.writeInt(memberID);
+			append(REMOVE_MEMBER);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	public void productAdded(Product product) {
+		try {
+			BinarySnapshot.writeProduct(record, product);
+			append(ADD_PRODUCT);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	public void priceUpdated(int productID, long priceCents) {
+		try {
+			record.writeInt(productID);
+			record.writeLong(priceCents);
+			append(UPDATE_PRICE);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Records a finalized sale. Replaying it takes the sold units out of stock and adds the Transaction.
+	 *
+	 * @param Transaction transaction - the finalized Transaction
+	 * @param ProductList products - the catalog, so line items can refer to products by ID
+	 */
+	public void sale(Transaction transaction, ProductList products) {
+		try {
+			BinarySnapshot.writeTransaction(record, transaction, products);
+			append(SALE);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Records a restock order, replayed with ShipmentList.addProductOrder(Product)
+	 *
+	 * @param int productID - the product ordered
+	 */
+	public void productOrdered(int productID) {
+		try {
+			record.writeInt(productID);
+			append(ORDER);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	public void shipmentProcessed(int productID) {
+		try {
+			record.writeInt(productID);
+			append(SHIPMENT);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Records a received shipment manifest, replayed with ShipmentList.receive for every product
+	 *
+	 * @param int[] productIDs - the products stocked
+	 * @param int[] quantities - the quantity delivered of each
+	 * @param int count - number of products to record
+	 */
+	public void manifestReceived(int[] productIDs, int[] quantities, int count) {
+		try {
+			record.writeInt(count);
+			for (int i = 0; i < count; i++) {
+				record.writeInt(productIDs[i]);
+				record.writeInt(quantities[i]);
+			}
+			append(MANIFEST);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * @return boolean true once checkpointInterval records have been written since the last checkpoint
+	 */
+	public boolean checkpointDue() {
+		return recordsSinceCheckpoint >= checkpointInterval;
+	}
+
+	/**
+	 * Starts a new generation and writes a checkpoint of the given lists for it, then deletes
+	 * the previous generation. The store must not change while the checkpoint is written.
+	 *
+	 * @throws IOException if the checkpoint cannot be written, the previous generation is kept
+	 */
+	public void checkpoint(MemberList members, ProductList products, ShipmentList shipments,
+			TransactionList transactions) throws IOException {
+		lock.lock();
+		try {
+			closeJournal();
+			generation++;
+			openJournal();
+
+			// write to a temporary file first, so a crash never leaves a partial checkpoint
+			File temp = new File(directory, CHECKPOINT_PREFIX + generation + ".tmp");
+			try (FileOutputStream stream = new FileOutputStream(temp)) {
+				BinarySnapshot.write(new BufferedOutputStream(stream, 1 << 16), members, products, shipments,
+						transactions);
+				stream.getFD().sync();
+			}
+			GroceryStore.moveAtomically(temp.toPath(), checkpointFile(generation).toPath());
+			recordsSinceCheckpoint = 0;
+			deleteBefore(generation);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		lock.lock();
+		try {
+			closeJournal();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	// Appends the record built in the payload buffer and hands it to the operating system, so
+	// the record survives the store stopping.
+	private void append(int type) throws IOException {
+		try {
+			crc.reset();
+			crc.update(type);
+			crc.update(payload.toByteArray());
+			out.writeByte(type);
+			out.writeInt(payload.size());
+			payload.writeTo(out);
+			out.writeInt((int) crc.getValue());
+			out.flush();
+			recordsSinceCheckpoint++;
+		} finally {
+			payload.reset();
+		}
+	}
+
+	// Applies the records of one journal to the lists, returns the length of the intact part of the file.
+	private static long replay(File journal, MemberList members, ProductList products, ShipmentList shipments,
+			TransactionList transactions) throws IOException {
+		long length = journal.length();
+		CRC32 crc = new CRC32();
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(journal), 1 << 16))) {
+			if (length < HEADER_LENGTH) {
+				return 0; // the header was never finished
+			}
+			int version = in.readInt() == MAGIC ? in.readUnsignedShort() : -1;
+			if (version != VERSION && version != DOUBLE_PRICES_VERSION) {
+				throw new IOException("Not a grocery store journal: " + journal + ".");
+			}
+			long position = HEADER_LENGTH;
+			while (length - position >= 9) {
+				int type = in.readUnsignedByte();
+				int size = in.readInt();
+				if (size < 0 || size > length - position - 9) {
+					break; // cut short
+				}
+				byte[] data = new byte[size];
+				in.readFully(data);
+				crc.reset();
+				crc.update(type);
+				crc.update(data);
+				if (in.readInt() != (int) crc.getValue()) {
+					break;
+				}
+				apply(type, version, new DataInputStream(new ByteArrayInputStream(data)), members, products,
+						shipments, transactions);
+				position += 9 + size;
+			}
+			return position;
+		}
+	}
+
+	private static void apply(int type, int version, DataInputStream in, MemberList members, ProductList products,
+			ShipmentList shipments, TransactionList transactions) throws IOException {
+		switch (type) {
+			case ADD_MEMBER:
+				members.addMember(BinarySnapshot.readMember(in));
+				break;
+			case REMOVE_MEMBER:
+				members.removeMember(in.readInt());
+				break;
+			case ADD_PRODUCT:
+				products.addProduct(BinarySnapshot.readProduct(in, version));
+				break;
+			case UPDATE_PRICE:
+				Product priced = products.getProduct(in.readInt());
+				long priceCents = version == DOUBLE_PRICES_VERSION ? Money.toCents(in.readDouble()) : in.readLong();
+				if (priced != null) {
+					priced.setPriceCents(priceCents);
+				}
+				break;
+			case SALE:
+				Transaction transaction = BinarySnapshot.readTransaction(in, products, version);
+				for (LineItem lineItem : transaction.lineItemList) {
+					Product product = lineItem.getProduct();
+					if (products.getProduct(product.getProductID()) == product) {
+						product.updateStock(-lineItem.getQuantity());
+					}
+				}
+				transactions.addTransaction(transaction);
+				break;
+			case ORDER:
+				Product ordered = products.getProduct(in.readInt());
+				if (ordered != null) {
+					shipments.addProductOrder(ordered);
+				}
+				break;
+			case SHIPMENT:
+				ProductOrder order = shipments.getOrder(in.readInt());
+				if (order != null) {
+					order.getProduct().updateStock(order.getQuantity());
+					shipments.removeProductOrder(order.getProductID());
+				}
+				break;
+			case MANIFEST:
+				int count = in.readInt();
+				for (int i = 0; i < count; i++) {
+					Product received = products.getProduct(in.readInt());
+					int quantity = in.readInt();
+					if (received != null) {
+						shipments.receive(received, quantity);
+					}
+				}
+				break;
+			default:
+				throw new IOException("Unknown journal record type " + type + ".");
+		}
+	}
+
+	private static int journalVersion(File journal) throws IOException {
+		try (DataInputStream in = new DataInputStream(new FileInputStream(journal))) {
+			in.readInt();
+			return in.readUnsignedShort();
+		}
+	}
+
+	private void openJournal() throws IOException {
+		File journal = journalFile(generation);
+		boolean isNew = journal.length() == 0;
+		file = new FileOutputStream(journal, true);
+		out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16));
+		if (isNew) {
+			out.writeInt(MAGIC);
+			out.writeShort(VERSION);
+			out.flush();
+		}
+	}
+
+	private void closeJournal() throws IOException {
+		if (out != null) {
+			out.flush();
+			file.getFD().sync();
+			out.close();
+			out = null;
+		}
+	}
+
+	// Deletes the checkpoints and journals of generations before the given one.
+	private void deleteBefore(long first) {
+		for (long old : generations(CHECKPOINT_PREFIX, CHECKPOINT_EXTENSION).headSet(first)) {
+			checkpointFile(old).delete();
+		}
+		for (long old : generations(JOURNAL_PREFIX, JOURNAL_EXTENSION).headSet(first)) {
+			journalFile(old).delete();
+		}
+	}
+
+	private TreeSet<Long> generations(String prefix, String extension) {
+		TreeSet<Long> found = new TreeSet<>();
+		String[] names = directory.list();
+		if (names == null) {
+			return found;
+		}
+		for (String name : names) {
+			if (name.startsWith(prefix) && name.endsWith(extension)) {
+				try {
+					found.add(Long.parseLong(name.substring(prefix.length(), name.length() - extension.length())));
+				} catch (NumberFormatException e) {
+					// not one of ours
+				}
+			}
+		}
+		return found;
+	}
+
+	private File checkpointFile(long generation) {
+		return new File(directory, CHECKPOINT_PREFIX + generation + CHECKPOINT_EXTENSION);
+	}
+
+	private File journalFile(long generation) {
+		return new File(directory, JOURNAL_PREFIX + generation + JOURNAL_EXTENSION);
+	}
+}
@@ -0,0 +1,260 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * StoreMetrics counts the calls to GroceryStore operations and keeps a latency histogram
+ * for each. Off by default: operations then cost one read of the enabled flag. Turn it on
+ * with setEnabled or by starting the JVM with -Dgrocery.metrics=true.
+ *
+ * An operation is timed like this, so one that throws is counted as a failure:
+ *
+ *     long start = metrics.start();
+ *     boolean success = false;
+ *     try {
+ *         ... the operation, setting success ...
+ *     } finally {
+ *         metrics.record(StoreMetrics.PROCESS_SHIPMENT, start, success);
+ *     }
+ *
+ * Latencies go into buckets that split every power of two of nanoseconds into 8, so
+ * percentiles are within 12.5% of the true value. Recording is lock free and safe from
+ * any number of registers.
+ */
+
+public class StoreMetrics {
+
+	// operations
+	public static final int ADD_PRODUCT_TO_CART = 0;
+	public static final int FINALIZE_CART = 1;
+	public static final int PROCESS_SHIPMENT = 2;
+	public static final int UPDATE_PRICE = 3;
+	public static final int GET_PRODUCT = 4;
+	public static final int PRINT_TRANSACTIONS = 5;
+	public static final int SAVE = 6;
+	public static final int OPEN = 7;
+	public static final int PROCESS_MANIFEST = 8;
+	public static final int SEARCH_PRODUCTS = 9;
+	private static final String[] NAMES = { "addProductToCart", "finalizeCart", "processShipment", "updatePrice",
+			"getProduct", "printTransactions", "save", "open", "processManifest", "searchProducts" };
+
+	private static final long NOT_TIMED = Long.MIN_VALUE; // returned by start when metrics are off
+	private static final int SUB_BUCKET_BITS = 3;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	private volatile boolean enabled = Boolean.getBoolean("grocery.metrics");
+	private final Operation[] operations = new Operation[NAMES.length];
+	private volatile long resetAt = System.nanoTime();
+
+	/**
+	 * Constructor
+	 *
+	 */
+	public StoreMetrics() {
+		for (int i = 0; i < operations.length; i++) {
+			operations[i] = new Operation();
+		}
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * @param boolean enabled - true to start recording, false to stop. Recorded values are kept.
+	 */
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	/**
+	 * Call before an operation.
+	 *
+	 * @return long start time to pass to record
+	 */
+	public long start() {
+		return enabled ? System.nanoTime() : NOT_TIMED;
+	}
+
+	/**
+	 * Call after an operation. Does nothing if metrics were off when the operation started.
+	 *
+	 * @param int operation - the operation, such as FINALIZE_CART
+	 * @param long start - value start returned before the operation
+	 * @param boolean success - false if the operation failed, counted separately
+	 */
+	public void record(int operation, long start, boolean success) {
+		if (start == NOT_TIMED) {
+			return;
+		}
+		long nanos = Math.max(System.nanoTime() - start, 0);
+		Operation recorded = operations[operation];
+		recorded.count.increment();
+		if (!success) {
+			recorded.failures.increment();
+		}
+		recorded.totalNanos.add(nanos);
+		recorded.maxNanos.accumulate(nanos);
+		recorded.buckets.incrementAndGet(bucket(nanos));
+	}
+
+	/**
+	 * Clears every count and histogram and restarts the throughput clock.
+	 */
+	public void reset() {
+		for (Operation operation : operations) {
+			operation.count.reset();
+			operation.failures.reset();
+			operation.totalNanos.reset();
+			operation.maxNanos.reset();
+			for (int i = 0; i < BUCKETS; i++) {
+				operation.buckets.set(i, 0);
+			}
+		}
+		resetAt = System.nanoTime();
+	}
+
+	/**
+	 * Copies the current values. Operations recorded while the copy is made may be
+	 * partly included.
+	 *
+	 * @return List<OperationStats> one entry per operation, in operation order
+	 */
+	public List<OperationStats> snapshot() {
+		double seconds = (System.nanoTime() - resetAt) / 1e9;
+		ArrayList<OperationStats> stats = new ArrayList<>(operations.length);
+		for (int i = 0; i < operations.length; i++) {
+			stats.add(new OperationStats(NAMES[i], operations[i], seconds));
+		}
+		return stats;
+	}
+
+	/**
+	 * Prints call counts, throughput and latency percentiles of every operation that was called.
+	 */
+	public void print() {
+		System.out.println(String.format("%-18s %9s %8s %10s %10s %10s %10s %10s %10s", "Operation", "Calls", "Failed",
+				"Per sec", "Mean us", "p50 us", "p90 us", "p99 us", "Max us"));
+		boolean any = false;
+		for (OperationStats stats : snapshot()) {
+			if (stats.getCount() == 0) {
+				continue;
+			}
+			any = true;
+			System.out.println(String.format("%-18s %9d %8d %10.1f %10.1f %10.1f %10.1f %10.1f %10.1f", stats.getName(),
+					stats.getCount(), stats.getFailures(), stats.getThroughput(), stats.getMeanNanos() / 1e3,
+					stats.percentile(0.50) / 1e3, stats.percentile(0.90) / 1e3, stats.percentile(0.99) / 1e3,
+					stats.getMaxNanos() / 1e3));
+		}
+		if (!any) {
+			System.out.println(enabled ? "No operations recorded yet." : "Metrics are off.");
+		}
+	}
+
+	// Values below SUB_BUCKETS have a bucket each. Above that, every power of two is split
+	// into SUB_BUCKETS buckets by the bits after the highest one.
+	static int bucket(long nanos) {
+		if (nanos < SUB_BUCKETS) {
+			return (int) nanos;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+		int sub = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+	}
+
+	// smallest value that falls in a bucket
+	static long bucketStart(int bucket) {
+		if (bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+		int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+		return (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (exponent - SUB_BUCKET_BITS);
+	}
+
+	// The live counters of one operation.
+	private static class Operation {
+		private final LongAdder count = new LongAdder();
+		private final LongAdder failures = new LongAdder();
+		private final LongAdder totalNanos = new LongAdder();
+		private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+		private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+	}
+
+	// A copy of the counters of one operation, returned by snapshot.
+	public static class OperationStats {
+		private final String name;
+		private final long count;
+		private final long failures;
+		private final long totalNanos;
+		private final long maxNanos;
+		private final long[] buckets = new long[BUCKETS];
+		private final double seconds;
+
+		private OperationStats(String name, Operation operation, double seconds) {
+			this.name = name;
+			this.count = operation.count.sum();
+			this.failures = operation.failures.sum();
+			this.totalNanos = operation.totalNanos.sum();
+			this.maxNanos = operation.maxNanos.get();
+			for (int i = 0; i < BUCKETS; i++) {
+				buckets[i] = operation.buckets.get(i);
+			}
+			this.seconds = seconds;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public long getCount() {
+			return count;
+		}
+
+		public long getFailures() {
+			return failures;
+		}
+
+		public double getMeanNanos() {
+			return count == 0 ? 0 : (double) totalNanos / count;
+		}
+
+		public long getMaxNanos() {
+			return maxNanos;
+		}
+
+		/**
+		 * @return double calls per second since the metrics were created or reset
+		 */
+		public double getThroughput() {
+			return seconds <= 0 ? 0 : count / seconds;
+		}
+
+		/**
+		 * @param double fraction - the percentile as a fraction, such as 0.99
+		 * @return long latency in nanoseconds that this fraction of calls took at most,
+		 *         rounded up to the end of its bucket, 0 if there were no calls
+		 */
+		public long percentile(double fraction) {
+			long total = 0;
+			for (long bucketCount : buckets) {
+				total += bucketCount;
+			}
+			if (total == 0) {
+				return 0;
+			}
+			long rank = Math.max((long) Math.ceil(fraction * total), 1);
+			long seen = 0;
+			for (int i = 0; i < BUCKETS; i++) {
+				seen += buckets[i];
+				if (seen >= rank) {
+					long bucketEnd = i + 1 < BUCKETS ? bucketStart(i + 1) - 1 : Long.MAX_VALUE;
+					return Math.min(bucketEnd, maxNanos);
+				}
+			}
+			return maxNanos;
+		}
+	}
+}
@@ -0,0 +1,72 @@
+import static org.junit.Assert.*;
+import java.time.ZonedDateTime;
+import org.junit.Test;
+
+public class StoreMetricsTests {
+    /**
+     * Covers the operation metrics.
+     */
+
+    @Test
+    public void testBucketsCoverEveryValue() {
+        for (long nanos : new long[] { 0, 1, 7, 8, 9, 15, 16, 1000, 123_456_789, Long.MAX_VALUE }) {
+            int bucket = StoreMetrics.bucket(nanos);
+            assertTrue(StoreMetrics.bucketStart(bucket) <= nanos);
+            if (nanos < Long.MAX_VALUE) {
+                assertTrue(nanos < StoreMetrics.bucketStart(bucket + 1));
+            }
+        }
+    }
+
+    @Test
+    public void testNothingIsRecordedWhenOff() {
+        StoreMetrics metrics = new StoreMetrics();
+        metrics.setEnabled(false);
+        metrics.record(StoreMetrics.SAVE, metrics.start(), true);
+        assertEquals(0, metrics.snapshot().get(StoreMetrics.SAVE).getCount());
+    }
+
+    @Test
+    public void testStoreOperationsAreTimed() {
+        GroceryStore store = GroceryStore.instance();
+        StoreMetrics metrics = store.getMetrics();
+        metrics.reset();
+        metrics.setEnabled(true);
+        try {
+            Product tea = new Product("Metrics Tea", 88301, 2, 4.25, 20);
+            store.addProductToCatalog(tea);
+            store.updatePrice(88301, 4.50);
+            store.updatePrice(-1, 4.50);
+            store.getProduct(88301);
+
+            StoreMetrics.OperationStats prices = metrics.snapshot().get(StoreMetrics.UPDATE_PRICE);
+            assertEquals(2, prices.getCount());
+            assertEquals("The unknown product should count as a failure.", 1, prices.getFailures());
+            assertTrue(prices.percentile(0.5) <= prices.percentile(0.99));
+            assertTrue(prices.percentile(0.99) <= prices.getMaxNanos());
+            assertEquals(1, metrics.snapshot().get(StoreMetrics.GET_PRODUCT).getCount());
+        } finally {
+            metrics.setEnabled(false);
+        }
+    }
+
+    @Test
+    public void testOperationThatThrowsIsAFailure() {
+        GroceryStore store = GroceryStore.instance();
+        StoreMetrics metrics = store.getMetrics();
+        metrics.reset();
+        metrics.setEnabled(true);
+        try {
+            try {
+                store.printTransactions(null, ZonedDateTime.now());
+                fail("A missing date should throw.");
+            } catch (NullPointerException expected) {
+            }
+            StoreMetrics.OperationStats printed = metrics.snapshot().get(StoreMetrics.PRINT_TRANSACTIONS);
+            assertEquals(1, printed.getCount());
+            assertEquals(1, printed.getFailures());
+        } finally {
+            metrics.setEnabled(false);
+        }
+    }
+}
@@ -6,7 +6,7 @@ public class Transaction {
     ArrayList<LineItem> lineItemList;
     int totalProducts;
     ZonedDateTime dateOfSale;
-    double total;
+    long totalCents; // see Money
 
     /**
      * Constructor
@@ -17,11 +17,47 @@ public class Transaction {
      * @param total         total price of transaction
      */
     public Transaction(int memberID, ArrayList<LineItem> lineItemList, int totalProducts, double total) {
+        this(memberID, lineItemList, totalProducts, total, java.time.ZonedDateTime.now());
+    }
+
+    /**
+     * Constructor for a transaction that happened at a known time, such as one
+     * loaded from a file or entered after the fact.
+     * 
+     * @param memberID      memberid associated with transaction
+     * @param lineItemList  list of items in transaction
+     * @param totalProducts totalProducts in transaction
+     * @param total         total price of transaction
+     * @param dateOfSale    time the sale took place
+     */
+    public Transaction(int memberID, ArrayList<LineItem> lineItemList, int totalProducts, double total,
+            ZonedDateTime dateOfSale) {
+        this(Money.toCents(total), memberID, lineItemList, totalProducts, dateOfSale);
+    }
+
+    /**
+     * Makes a transaction with its total in cents. A factory rather than a constructor,
+     * so a total in cents is never mistaken for one in dollars.
+     * 
+     * @param memberID      memberid associated with transaction
+     * @param lineItemList  list of items in transaction
+     * @param totalProducts totalProducts in transaction
+     * @param totalCents    total price of transaction in cents
+     * @param dateOfSale    time the sale took place
+     * @return the transaction
+     */
+    public static Transaction ofCents(int memberID, ArrayList<LineItem> lineItemList, int totalProducts,
+            long totalCents, ZonedDateTime dateOfSale) {
+        return new Transaction(totalCents, memberID, lineItemList, totalProducts, dateOfSale);
+    }
+
+    private Transaction(long totalCents, int memberID, ArrayList<LineItem> lineItemList, int totalProducts,
+            ZonedDateTime dateOfSale) {
         this.memberID = memberID;
         this.lineItemList = lineItemList;
         this.totalProducts = totalProducts;
-        this.total = total;
-        dateOfSale = java.time.ZonedDateTime.now();
+        this.totalCents = totalCents;
+        this.dateOfSale = dateOfSale;
     }
 
     /**
@@ -48,7 +84,16 @@ public class Transaction {
      * @return total price amount
      */
     public double getTotal() {
-        return total;
+        return Money.toDollars(totalCents);
+    }
+
+    /**
+     * Getter Total Price in cents
+     * 
+     * @return total price amount in cents
+     */
+    public long getTotalCents() {
+        return totalCents;
     }
 
     /**
@@ -69,7 +114,7 @@ public class Transaction {
         for (LineItem l : lineItemList) {
             l.print();
         }
-        System.out.println("\nTotal: $" + String.format("%.2f", total));
+        System.out.println("\nTotal: $" + Money.format(totalCents));
         System.out.println(
                 "Date: " + dateOfSale.getYear() + "-" + dateOfSale.getMonthValue() + "-" + dateOfSale.getDayOfMonth());
 
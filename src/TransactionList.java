@@ -1,46 +1,111 @@
 import java.time.ZonedDateTime;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.RandomAccess;
+
+// Collection class for holding Transaction objects. Safe to share between
+// registers: every method locks the list.
 
 public class TransactionList {
 
 	private ArrayList<Transaction> transactions;
+	// Time index: the same transactions sorted by date of sale, with the sale times
+	// kept in a parallel primitive array so range queries can binary search them.
+	private ArrayList<Transaction> transactionsByDate;
+	private long[] saleTimes;
+	// memberID -> that member's transactions in the order they were added
+	private IntHashMap<ArrayList<Transaction>> transactionsByMember;
 	
 	public TransactionList() {
 		this.transactions = new ArrayList<Transaction>();
+		this.transactionsByDate = new ArrayList<Transaction>();
+		this.saleTimes = new long[16];
+		this.transactionsByMember = new IntHashMap<>();
 	}
 	
-	public void addTransaction(Transaction tx) {
+	public synchronized void addTransaction(Transaction tx) {
 		this.transactions.add(tx);
+		indexByDate(tx);
+		indexByMember(tx);
 	}
 	
 	
-	public ArrayList<Transaction> getTransactionsByMember(int memberID) {
-		
-		ArrayList<Transaction> memberTransactions = new ArrayList<Transaction>();
-		
-		for (Transaction tx : transactions) {
-			if (tx.getMemberID() == memberID) { // TODO
-				memberTransactions.add(tx);
+	/**
+	 * Adds many transactions at once, such as the ones read from a saved store.
+	 * The time index is sorted once at the end instead of placing each transaction
+	 * in turn, so transactions that are not in date order do not cost a shift each.
+	 *
+	 * @param added the transactions to add, in the order they should be listed
+	 */
+	public synchronized void addTransactions(List<Transaction> added) {
+		for (Transaction tx : added) {
+			this.transactions.add(tx);
+			indexByMember(tx);
+		}
+		transactionsByDate.addAll(added);
+		int count = transactionsByDate.size();
+		if (saleTimes.length < count) {
+			saleTimes = Arrays.copyOf(saleTimes, Math.max(count, saleTimes.length * 2));
+		}
+		boolean sorted = true;
+		for (int i = count - added.size(); i < count; i++) {
+			saleTimes[i] = saleTimeKey(transactionsByDate.get(i).getDateOfSale());
+			sorted &= i == 0 || saleTimes[i - 1] <= saleTimes[i];
+		}
+		if (!sorted) {
+			// a stable sort, so transactions with the same sale time keep the order they were added in
+			transactionsByDate.sort(Comparator.comparingLong(tx -> saleTimeKey(tx.getDateOfSale())));
+			for (int i = 0; i < count; i++) {
+				saleTimes[i] = saleTimeKey(transactionsByDate.get(i).getDateOfSale());
 			}
 		}
-		return memberTransactions;
 	}
 	
 	
-	public ArrayList<Transaction> getTransactionsByDate(ZonedDateTime startDate, ZonedDateTime endDate) {
+	/**
+	 * Gets the purchase history of a member.
+	 *
+	 * @param memberID the member to look up
+	 * @return read only view of the member's transactions in the order they were added,
+	 *         empty if the member has none. The view ends at the member's last transaction
+	 *         when the call was made, so it does not change as more are added.
+	 */
+	public synchronized List<Transaction> getTransactionsByMember(int memberID) {
+		ArrayList<Transaction> memberTransactions = transactionsByMember.get(memberID);
+		if (memberTransactions == null) {
+			return Collections.emptyList();
+		}
+		return new PrefixView(memberTransactions);
+	}
+	
+	
+	/**
+	 * Finds the transactions that took place strictly between two dates, in date order.
+	 * Binary searches the time index for the start date and stops at the end date,
+	 * so only the matching transactions are visited.
+	 *
+	 * @param startDate exclusive start of the range
+	 * @param endDate   exclusive end of the range
+	 * @return ArrayList of matching transactions
+	 */
+	public synchronized ArrayList<Transaction> getTransactionsByDate(ZonedDateTime startDate, ZonedDateTime endDate) {
 		
 		ArrayList<Transaction> dateTransactions = new ArrayList<Transaction>();
 		
-		for (Transaction tx : transactions) {
-			if (tx.getDateOfSale().isAfter(startDate) && tx.getDateOfSale().isBefore(endDate)) { // TODO
-				dateTransactions.add(tx);
-			}
+		long end = saleTimeKey(endDate);
+		int count = transactionsByDate.size();
+		for (int i = firstAfter(saleTimeKey(startDate)); i < count && saleTimes[i] < end; i++) {
+			dateTransactions.add(transactionsByDate.get(i));
 		}
 		return dateTransactions;
 	}
 	
 	
-	public Transaction get(int index) {
+	public synchronized Transaction get(int index) {
 		try {
 			Transaction tx = transactions.get(index);
 			return tx;
@@ -51,14 +116,101 @@ public class TransactionList {
 		}
 	}
 
-	public ArrayList<Transaction> getAllTransactions() {
-		return transactions;
+	/**
+	 * @return read only view of every transaction in the order they were added, ending at
+	 *         the last transaction when the call was made
+	 */
+	public synchronized List<Transaction> getAllTransactions() {
+		return new PrefixView(transactions);
+	}
+
+	public synchronized int size() {
+		return transactions.size();
 	}
 
-	public void print() {
+	public synchronized void print() {
 		for (Transaction tx : transactions) {
 			tx.print();
 		}
 	}
 	
+	// Transactions normally arrive in time order and are appended. Loaded or back-dated
+	// ones are inserted after any transactions with the same sale time.
+	private void indexByDate(Transaction tx) {
+		long time = saleTimeKey(tx.getDateOfSale());
+		int count = transactionsByDate.size();
+		if (count == saleTimes.length) {
+			saleTimes = Arrays.copyOf(saleTimes, count * 2);
+		}
+		if (count == 0 || saleTimes[count - 1] <= time) {
+			saleTimes[count] = time;
+			transactionsByDate.add(tx);
+		} else {
+			int position = firstAfter(time);
+			System.arraycopy(saleTimes, position, saleTimes, position + 1, count - position);
+			saleTimes[position] = time;
+			transactionsByDate.add(position, tx);
+		}
+	}
+
+	private void indexByMember(Transaction tx) {
+		ArrayList<Transaction> memberTransactions = transactionsByMember.get(tx.getMemberID());
+		if (memberTransactions == null) {
+			memberTransactions = new ArrayList<Transaction>();
+			transactionsByMember.put(tx.getMemberID(), memberTransactions);
+		}
+		memberTransactions.add(tx);
+	}
+
+	// index of the first indexed transaction sold after the given time
+	private int firstAfter(long time) {
+		int low = 0;
+		int high = transactionsByDate.size();
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (saleTimes[mid] <= time) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	// Read only view of the entries a list had when the view was made. The lists only ever
+	// grow, so those entries never change; they are read under the list's lock, since other
+	// registers may be appending to the list at the same time.
+	private class PrefixView extends AbstractList<Transaction> implements RandomAccess {
+		private final ArrayList<Transaction> list;
+		private final int size;
+
+		PrefixView(ArrayList<Transaction> list) {
+			this.list = list;
+			this.size = list.size();
+		}
+
+		@Override
+		public Transaction get(int index) {
+			if (index < 0 || index >= size) {
+				throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+			}
+			synchronized (TransactionList.this) {
+				return list.get(index);
+			}
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+	}
+
+	// Nanoseconds since the epoch, saturated for dates too far out to fit in a long.
+	static long saleTimeKey(ZonedDateTime date) {
+		long seconds = date.toEpochSecond();
+		if (seconds >= Long.MAX_VALUE / 1_000_000_000L) return Long.MAX_VALUE;
+		if (seconds <= Long.MIN_VALUE / 1_000_000_000L) return Long.MIN_VALUE;
+		return seconds * 1_000_000_000L + date.getNano();
+	}
+
 }
@@ -0,0 +1,66 @@
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Benchmark comparing the heap used by TransactionList and ColumnarTransactionList.
+ * Fills each list with the same transactions and reports the heap they hold per line item.
+ *
+ * Run with: java TransactionStorageBenchmark [transactions]
+ */
+
+public class TransactionStorageBenchmark {
+
+	private static final int PRODUCTS = 20_000;
+	private static final int ITEMS_PER_TRANSACTION = 3;
+
+	public static void main(String[] args) {
+		int transactionCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+		ProductList catalog = new ProductList();
+		for (int i = 0; i < PRODUCTS; i++) {
+			catalog.addProduct(new Product("Product " + i, 100_000 + i, 10, 0.5 + i % 2000 / 100.0, 1_000_000));
+		}
+
+		System.out.printf("%d transactions, %d line items%n", transactionCount, transactionCount * ITEMS_PER_TRANSACTION);
+		System.out.printf("%-10s %-14s %-14s%n", "Storage", "Heap (MB)", "Bytes/item");
+		report("objects", new TransactionList(), catalog, transactionCount);
+		ColumnarTransactionList columnar = new ColumnarTransactionList();
+		report("columnar", columnar, catalog, transactionCount);
+		System.out.printf("columnar storage by its own count: %.1f bytes per line item%n", columnar.bytesPerLineItem());
+	}
+
+	private static void report(String name, TransactionList transactions, ProductList catalog, int transactionCount) {
+		long before = usedHeap();
+		fill(transactions, catalog, transactionCount);
+		long used = usedHeap() - before;
+		System.out.printf("%-10s %-14d %-14.1f%n", name, used >> 20,
+				(double) used / (transactionCount * ITEMS_PER_TRANSACTION));
+		if (transactions.size() != transactionCount) {
+			throw new IllegalStateException("Lost transactions");
+		}
+	}
+
+	private static void fill(TransactionList transactions, ProductList catalog, int transactionCount) {
+		Random random = new Random(42);
+		ZonedDateTime date = ZonedDateTime.now();
+		for (int i = 0; i < transactionCount; i++) {
+			ArrayList<LineItem> lineItems = new ArrayList<>(ITEMS_PER_TRANSACTION);
+			long totalCents = 0;
+			for (int j = 0; j < ITEMS_PER_TRANSACTION; j++) {
+				LineItem lineItem = new LineItem(catalog.getProduct(100_000 + random.nextInt(PRODUCTS)), 1 + random.nextInt(5));
+				totalCents += lineItem.getPriceCents();
+				lineItems.add(lineItem);
+			}
+			transactions.addTransaction(Transaction.ofCents(100 + random.nextInt(10_000), lineItems, ITEMS_PER_TRANSACTION,
+					totalCents, date.plusSeconds(i)));
+		}
+	}
+
+	private static long usedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
@@ -0,0 +1,93 @@
+import static org.junit.Assert.*;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TransactionTests {
+    /**
+     * Covers use case 9: Printing transactions between two dates.
+     */
+    protected TransactionList transactions;
+    protected ZonedDateTime monday;
+
+    // overridden to run the same tests against another storage
+    protected TransactionList newTransactionList() {
+        return new TransactionList();
+    }
+
+    @Before
+    public void setUp() {
+        transactions = newTransactionList();
+        monday = ZonedDateTime.parse("2023-10-02T09:00:00-05:00[America/Chicago]");
+    }
+
+    private Transaction transactionAt(int memberID, ZonedDateTime date) {
+        return new Transaction(memberID, new ArrayList<LineItem>(), 0, 0.0, date);
+    }
+
+    @Test
+    public void testTransactionsByDateRange() {
+        transactions.addTransaction(transactionAt(100, monday));
+        transactions.addTransaction(transactionAt(101, monday.plusDays(1)));
+        transactions.addTransaction(transactionAt(102, monday.plusDays(2)));
+
+        ArrayList<Transaction> result = transactions.getTransactionsByDate(monday.plusHours(1), monday.plusDays(3));
+        assertEquals("Only the last two transactions are in range.", 2, result.size());
+        assertEquals(101, result.get(0).getMemberID());
+        assertEquals(102, result.get(1).getMemberID());
+    }
+
+    @Test
+    public void testBackDatedTransactionIsFound() {
+        transactions.addTransaction(transactionAt(100, monday.plusDays(2)));
+        transactions.addTransaction(transactionAt(101, monday)); // entered after the fact
+
+        ArrayList<Transaction> result = transactions.getTransactionsByDate(monday.minusDays(1), monday.plusDays(1));
+        assertEquals("Back dated transaction should be in range.", 1, result.size());
+        assertEquals(101, result.get(0).getMemberID());
+        assertEquals("Insertion order is kept for the full list.", 100, transactions.get(0).getMemberID());
+    }
+
+    @Test
+    public void testTransactionsByMember() {
+        transactions.addTransaction(transactionAt(100, monday));
+        transactions.addTransaction(transactionAt(101, monday));
+        transactions.addTransaction(transactionAt(100, monday.plusDays(1)));
+
+        assertEquals("Member 100 has two transactions.", 2, transactions.getTransactionsByMember(100).size());
+        assertTrue("Member 102 has no transactions.", transactions.getTransactionsByMember(102).isEmpty());
+
+        // another register adding a sale must not change a history already handed out
+        List<Transaction> history = transactions.getTransactionsByMember(100);
+        List<Transaction> all = transactions.getAllTransactions();
+        transactions.addTransaction(transactionAt(100, monday.plusDays(2)));
+        assertEquals(2, history.size());
+        assertEquals(monday.plusDays(1).toInstant(), history.get(1).getDateOfSale().toInstant());
+        assertEquals(all.size() + 1, transactions.getAllTransactions().size());
+    }
+
+    @Test
+    public void testSalesArrivingOutOfOrderStaySorted() {
+        // registers stamp a sale before adding it, so sales close together can arrive swapped
+        int[] minutes = { 0, 2, 1, 3, 5, 4, 4, 6 };
+        for (int i = 0; i < minutes.length; i++) {
+            transactions.addTransaction(transactionAt(100 + i, monday.plusMinutes(minutes[i])));
+            assertEquals(i + 1, transactions.getTransactionsByDate(monday.minusDays(1), monday.plusDays(1)).size());
+        }
+        List<Transaction> loaded = new ArrayList<>();
+        loaded.add(transactionAt(200, monday.plusMinutes(3)));
+        loaded.add(transactionAt(201, monday.minusMinutes(1)));
+        transactions.addTransactions(loaded);
+
+        ArrayList<Transaction> result = transactions.getTransactionsByDate(monday.minusDays(1), monday.plusDays(1));
+        int[] expected = { 201, 100, 102, 101, 103, 200, 105, 106, 104, 107 };
+        assertEquals(expected.length, result.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals("Sales should be in time order, then in the order added.", expected[i],
+                    result.get(i).getMemberID());
+        }
+        assertEquals(2, transactions.getTransactionsByDate(monday.plusMinutes(2), monday.plusMinutes(4)).size());
+    }
+}